@@ -6,6 +6,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
@@ -31,6 +32,8 @@ public class AsyncConfig {
         executor.setQueueCapacity(50);
         executor.setKeepAliveSeconds(30);
         executor.setThreadNamePrefix("Notification-");
+        // Kuyruk doluysa çağıranı bloklamak yerine reddet; servis bunu 503'e çevirir
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         executor.initialize();
         return executor;
     }
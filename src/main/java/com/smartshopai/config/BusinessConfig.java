@@ -18,14 +18,23 @@ public class BusinessConfig {
     @Data
     public static class Payment {
         private BigDecimal lateFeeRate = new BigDecimal("0.05");
+        private BigDecimal dailyLateFeeRate = new BigDecimal("0.002");
         private BigDecimal maxLateFeePercentage = new BigDecimal("0.50");
         private Integer reminderIntervalDays = 7;
+        private Integer reminderHour = 9;
+        private Integer maxReminders = 5;
+        private String reportFormat = "csv";
+        private Integer siteConcurrency = 4;
     }
 
     @Data
     public static class Notification {
         private Integer batchSize = 100;
         private Integer retryDelaySeconds = 300;
+        private boolean asyncDispatch = true;
+        private Integer maxRetries = 3;
+        private Integer leaseSeconds = 120;
+        private Integer workers = 2;
     }
 
     @Data
@@ -33,5 +42,6 @@ public class BusinessConfig {
         private boolean virusScanEnabled = false;
         private boolean compressionEnabled = true;
         private boolean thumbnailEnabled = true;
+        private Integer uploadConcurrency = 4;
     }
 }
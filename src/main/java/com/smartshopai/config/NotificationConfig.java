@@ -0,0 +1,18 @@
+package com.smartshopai.config;
+
+import com.smartshopai.service.NotificationSender;
+import com.smartshopai.service.impl.LoggingNotificationSender;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class NotificationConfig {
+
+    // Bean methods are evaluated after component scanning, so a scanned NotificationSender always takes precedence
+    @Bean
+    @ConditionalOnMissingBean(NotificationSender.class)
+    public NotificationSender loggingNotificationSender() {
+        return new LoggingNotificationSender();
+    }
+}
@@ -1,31 +1,41 @@
 package com.smartshopai.config;
 
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Refill;
-import org.springframework.context.annotation.Bean;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
 
 @Configuration
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Data
 public class RateLimitConfig {
 
-    @Bean
-    public Bucket rateLimitBucket() {
-        // 100 request per minute (yaklaşık 1.67 request per second)
-        Bandwidth limit = Bandwidth.classic(100, Refill.greedy(100, Duration.ofMinutes(1)));
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
-    }
-    
-    @Bean
-    public Bucket strictRateLimitBucket() {
-        // 10 request per minute (daha sıkı limit)
-        Bandwidth limit = Bandwidth.classic(10, Refill.greedy(10, Duration.ofMinutes(1)));
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+    // 100 request per minute per user (or per IP for anonymous callers)
+    private Policy defaultPolicy = new Policy(100, 60);
+
+    // 10 request per minute per IP for /auth/** (daha sıkı limit)
+    private Policy strictPolicy = new Policy(10, 60);
+
+    // Shared ceiling for all users of one site, so a single tenant cannot starve the others
+    private Policy sitePolicy = new Policy(1000, 60);
+
+    private long maxBuckets = 100_000;
+    private long bucketIdleSeconds = 600;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Policy {
+        private long capacity;
+        private long periodSeconds;
+
+        public Bandwidth toBandwidth() {
+            return Bandwidth.classic(capacity, Refill.greedy(capacity, Duration.ofSeconds(periodSeconds)));
+        }
     }
 }
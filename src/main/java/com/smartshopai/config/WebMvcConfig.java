@@ -14,9 +14,9 @@ public class WebMvcConfig implements WebMvcConfigurer {
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        // Rate limiting interceptor'ını tüm endpoint'lere ekle
+        // Rate limiting interceptor'ını tüm endpoint'lere ekle (auth endpoint'leri sıkı politikayı kullanır)
         registry.addInterceptor(rateLimitInterceptor)
                 .addPathPatterns("/**")
-                .excludePathPatterns("/api/v1/health/**", "/api/v1/auth/**"); // Health ve auth endpoint'lerini hariç tut
+                .excludePathPatterns("/health/**"); // Pattern'ler context-path'e göre değil servlet path'e göre eşleşir
     }
 }
@@ -1,18 +1,29 @@
 package com.smartshopai.controller;
 
+import com.smartshopai.domain.dto.FileDownload;
 import com.smartshopai.domain.dto.FileUploadResponse;
+import com.smartshopai.domain.dto.MultiFileUploadResponse;
+import com.smartshopai.domain.dto.StorageMigrationStatus;
 import com.smartshopai.service.FileService;
+import com.smartshopai.service.FileStorageMigrationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 
@@ -25,6 +36,7 @@ import java.util.List;
 public class FileController {
 
     private final FileService fileService;
+    private final FileStorageMigrationService fileStorageMigrationService;
 
     @PostMapping("/upload")
     @Operation(summary = "Upload single file", description = "Upload a single file with category")
@@ -38,12 +50,34 @@ public class FileController {
 
     @PostMapping("/upload/multiple")
     @Operation(summary = "Upload multiple files", description = "Upload multiple files with category")
-    public ResponseEntity<List<FileUploadResponse>> uploadMultipleFiles(
+    public ResponseEntity<MultiFileUploadResponse> uploadMultipleFiles(
             @RequestParam("files") List<MultipartFile> files,
             @RequestParam("category") String category) {
         log.info("Uploading {} files with category: {}", files.size(), category);
-        List<FileUploadResponse> responses = fileService.uploadMultipleFiles(files, category);
-        return ResponseEntity.status(HttpStatus.CREATED).body(responses);
+        MultiFileUploadResponse response = fileService.uploadMultipleFiles(files, category);
+        // 207 tells the client to inspect per-file results
+        HttpStatus status = response.getFailed().isEmpty() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search files", description = "Prefix search on file names with optional category and site filters")
+    public ResponseEntity<Page<FileUploadResponse>> searchFiles(
+            @RequestParam("q") String query,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "siteId", required = false) String siteId,
+            Pageable pageable) {
+        log.debug("Searching files for: {}", query);
+        Page<FileUploadResponse> files = fileService.searchFiles(query, category, siteId, pageable);
+        return ResponseEntity.ok(files);
+    }
+
+    @PostMapping("/search/reindex")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild file search index", description = "Admin only - Backfill search tokens for files uploaded before search existed")
+    public ResponseEntity<Integer> reindexSearchTokens() {
+        log.info("Reindexing file search tokens");
+        return ResponseEntity.ok(fileService.reindexSearchTokens());
     }
 
     @GetMapping("/{fileId}")
@@ -54,6 +88,43 @@ public class FileController {
         return ResponseEntity.ok(fileInfo);
     }
 
+    @GetMapping("/{fileId}/content")
+    @Operation(summary = "Download file", description = "Stream file content; supports HTTP Range and conditional requests")
+    public ResponseEntity<Resource> downloadFile(@PathVariable String fileId) {
+        log.debug("Downloading file: {}", fileId);
+        return toResponse(fileService.loadFileContent(fileId), fileId);
+    }
+
+    @GetMapping("/{fileId}/thumbnail")
+    @Operation(summary = "Download thumbnail", description = "Small JPEG rendition of an image file for list views")
+    public ResponseEntity<Resource> downloadThumbnail(@PathVariable String fileId) {
+        log.debug("Downloading thumbnail for file: {}", fileId);
+        return toResponse(fileService.loadFileDerivative(fileId, "thumbnail"), fileId);
+    }
+
+    @GetMapping("/{fileId}/preview")
+    @Operation(summary = "Download preview", description = "Compressed JPEG rendition of an image file")
+    public ResponseEntity<Resource> downloadPreview(@PathVariable String fileId) {
+        log.debug("Downloading preview for file: {}", fileId);
+        return toResponse(fileService.loadFileDerivative(fileId, "preview"), fileId);
+    }
+
+    // Range requests on a Resource body are answered with 206 regions by Spring MVC; ETag/Last-Modified drive 304s
+    private ResponseEntity<Resource> toResponse(FileDownload download, String fileId) {
+        return ResponseEntity.ok()
+                .eTag(download.getEntityTag())
+                .lastModified(download.getLastModified())
+                .contentType(download.getMimeType() != null
+                        ? MediaType.parseMediaType(download.getMimeType())
+                        : MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                        .filename(download.getOriginalFileName() != null ? download.getOriginalFileName() : fileId, StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(download.getResource());
+    }
+
     @GetMapping("/category/{category}")
     @Operation(summary = "Get files by category", description = "Get all files in a specific category")
     public ResponseEntity<List<FileUploadResponse>> getFilesByCategory(@PathVariable String category) {
@@ -90,6 +161,22 @@ public class FileController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/storage/migrate")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Migrate storage layout", description = "Admin only - Move flat uploads into hash-sharded directories in the background")
+    public ResponseEntity<StorageMigrationStatus> migrateStorage() {
+        log.info("Starting storage layout migration");
+        StorageMigrationStatus status = fileStorageMigrationService.startMigration();
+        return ResponseEntity.accepted().body(status);
+    }
+
+    @GetMapping("/storage/migrate")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get storage migration status", description = "Admin only - Progress of the storage layout migration")
+    public ResponseEntity<StorageMigrationStatus> getStorageMigrationStatus() {
+        return ResponseEntity.ok(fileStorageMigrationService.getStatus());
+    }
+
     @PostMapping("/upload/payment-receipt")
     @Operation(summary = "Upload payment receipt", description = "Upload payment receipt document (bank receipt, EFT/havale screenshot)")
     public ResponseEntity<FileUploadResponse> uploadPaymentReceipt(
@@ -1,5 +1,6 @@
 package com.smartshopai.controller;
 
+import com.smartshopai.domain.dto.NotificationBatchDto;
 import com.smartshopai.domain.dto.NotificationDto;
 import com.smartshopai.service.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -39,54 +40,63 @@ public class NotificationController {
     @PostMapping("/send/users")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Send notification to multiple users", description = "Admin only - Send notification to multiple users")
-    public ResponseEntity<Void> sendNotificationToUsers(
+    public ResponseEntity<NotificationBatchDto> sendNotificationToUsers(
             @RequestParam List<String> userIds,
             @RequestBody NotificationDto notification) {
         log.info("Sending notification to {} users", userIds.size());
-        notificationService.sendNotificationToUsers(userIds, notification);
-        return ResponseEntity.ok().build();
+        NotificationBatchDto batch = notificationService.sendNotificationToUsers(userIds, notification);
+        return ResponseEntity.accepted().body(batch);
     }
 
     @PostMapping("/send/all")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Send notification to all users", description = "Admin only - Send notification to all users with FCM tokens")
-    public ResponseEntity<Void> sendNotificationToAllUsers(@RequestBody NotificationDto notification) {
+    public ResponseEntity<NotificationBatchDto> sendNotificationToAllUsers(@RequestBody NotificationDto notification) {
         log.info("Sending notification to all users");
-        notificationService.sendNotificationToAllUsers(notification);
-        return ResponseEntity.ok().build();
+        NotificationBatchDto batch = notificationService.sendNotificationToAllUsers(notification);
+        return ResponseEntity.accepted().body(batch);
     }
 
     @PostMapping("/send/role")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Send notification to users by role", description = "Admin only - Send notification to users with specific role")
-    public ResponseEntity<Void> sendNotificationToUsersByRole(
+    public ResponseEntity<NotificationBatchDto> sendNotificationToUsersByRole(
             @RequestParam String role,
             @RequestBody NotificationDto notification) {
         log.info("Sending notification to users with role: {}", role);
-        notificationService.sendNotificationToUsersByRole(role, notification);
-        return ResponseEntity.ok().build();
+        NotificationBatchDto batch = notificationService.sendNotificationToUsersByRole(role, notification);
+        return ResponseEntity.accepted().body(batch);
     }
 
     @PostMapping("/send/apartment")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Send notification to users by apartment", description = "Admin only - Send notification to users in specific apartment")
-    public ResponseEntity<Void> sendNotificationToUsersByApartment(
+    public ResponseEntity<NotificationBatchDto> sendNotificationToUsersByApartment(
             @RequestParam String apartmentNumber,
             @RequestBody NotificationDto notification) {
         log.info("Sending notification to users in apartment: {}", apartmentNumber);
-        notificationService.sendNotificationToUsersByApartment(apartmentNumber, notification);
-        return ResponseEntity.ok().build();
+        NotificationBatchDto batch = notificationService.sendNotificationToUsersByApartment(apartmentNumber, notification);
+        return ResponseEntity.accepted().body(batch);
     }
 
     @PostMapping("/send/building")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Send notification to users by building", description = "Admin only - Send notification to users in specific building")
-    public ResponseEntity<Void> sendNotificationToUsersByBuilding(
+    public ResponseEntity<NotificationBatchDto> sendNotificationToUsersByBuilding(
             @RequestParam String buildingNumber,
             @RequestBody NotificationDto notification) {
         log.info("Sending notification to users in building: {}", buildingNumber);
-        notificationService.sendNotificationToUsersByBuilding(buildingNumber, notification);
-        return ResponseEntity.ok().build();
+        NotificationBatchDto batch = notificationService.sendNotificationToUsersByBuilding(buildingNumber, notification);
+        return ResponseEntity.accepted().body(batch);
+    }
+
+    @GetMapping("/batches/{batchId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get notification batch status", description = "Admin only - Poll delivery progress of a notification batch")
+    public ResponseEntity<NotificationBatchDto> getNotificationBatch(@PathVariable String batchId) {
+        log.debug("Getting notification batch: {}", batchId);
+        NotificationBatchDto batch = notificationService.getNotificationBatch(batchId);
+        return ResponseEntity.ok(batch);
     }
 
     @PostMapping("/fcm-token")
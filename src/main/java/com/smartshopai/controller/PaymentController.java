@@ -1,22 +1,41 @@
 package com.smartshopai.controller;
 
+import com.smartshopai.domain.dto.DuesGenerationReport;
+import com.smartshopai.domain.dto.DuesGenerationRequest;
+import com.smartshopai.domain.dto.LateFeeRunReport;
 import com.smartshopai.domain.dto.PaymentDto;
+import com.smartshopai.domain.dto.PaymentExportFormat;
+import com.smartshopai.domain.dto.PaymentMigrationStatus;
+import com.smartshopai.domain.dto.PaymentSearchCriteria;
+import com.smartshopai.domain.dto.PaymentSearchPage;
 import com.smartshopai.domain.dto.PaymentStatistics;
 import com.smartshopai.domain.dto.MonthlyPaymentSummary;
 import com.smartshopai.domain.dto.YearlyPaymentSummary;
+import com.smartshopai.service.PaymentBatchService;
+import com.smartshopai.service.PaymentExportService;
+import com.smartshopai.service.PaymentMoneyMigrationService;
+import com.smartshopai.service.PaymentRollupService;
 import com.smartshopai.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
 
@@ -30,6 +49,10 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentRollupService paymentRollupService;
+    private final PaymentBatchService paymentBatchService;
+    private final PaymentMoneyMigrationService paymentMoneyMigrationService;
+    private final PaymentExportService paymentExportService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -158,6 +181,50 @@ public class PaymentController {
         return ResponseEntity.ok(statistics);
     }
 
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild payment rollups", description = "Admin only - Recompute the materialized monthly payment rollups")
+    public ResponseEntity<Integer> rebuildPaymentRollups(@RequestParam(required = false) String siteId) {
+        log.info("Rebuilding payment rollups for site: {}", siteId);
+        int rollups = paymentRollupService.rebuildRollups(siteId);
+        return ResponseEntity.ok(rollups);
+    }
+
+    @PostMapping("/late-fees/apply")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Apply late fees", description = "Admin only - Recompute late fees for every overdue payment across all sites")
+    public ResponseEntity<LateFeeRunReport> applyLateFees(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        log.info("Applying late fees as of: {}", asOf);
+        LateFeeRunReport report = paymentBatchService.applyLateFees(asOf != null ? asOf : LocalDate.now());
+        return ResponseEntity.ok(report);
+    }
+
+    @PostMapping("/dues/generate")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Generate monthly dues", description = "Admin only - Create one dues payment per apartment for the given month")
+    public ResponseEntity<DuesGenerationReport> generateDues(@Valid @RequestBody DuesGenerationRequest request) {
+        log.info("Generating dues for {}", request.getDueMonth());
+        DuesGenerationReport report = paymentBatchService.generateDues(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(report);
+    }
+
+    @PostMapping("/money/migrate")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Migrate payment amounts", description = "Admin only - Convert string-stored money fields to Decimal128 in the background")
+    public ResponseEntity<PaymentMigrationStatus> migratePaymentMoney() {
+        log.info("Starting payment money migration");
+        PaymentMigrationStatus status = paymentMoneyMigrationService.startMigration();
+        return ResponseEntity.accepted().body(status);
+    }
+
+    @GetMapping("/money/migrate")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get payment money migration status", description = "Admin only - Progress of the Decimal128 migration")
+    public ResponseEntity<PaymentMigrationStatus> getPaymentMoneyMigrationStatus() {
+        return ResponseEntity.ok(paymentMoneyMigrationService.getStatus());
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete payment", description = "Admin only - Delete a payment record")
@@ -168,8 +235,10 @@ public class PaymentController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search payments", description = "Search payments with various criteria")
-    public ResponseEntity<List<PaymentDto>> searchPayments(
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search payments", description = "Search payments with various criteria, paged by cursor")
+    public ResponseEntity<PaymentSearchPage> searchPayments(
+            @RequestParam(required = false) String siteId,
             @RequestParam(required = false) String userId,
             @RequestParam(required = false) String apartmentNumber,
             @RequestParam(required = false) String buildingNumber,
@@ -179,9 +248,58 @@ public class PaymentController {
             @RequestParam(required = false) String minAmount,
             @RequestParam(required = false) String maxAmount,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         log.debug("Searching payments with criteria");
-        return ResponseEntity.ok(List.of());
+        PaymentSearchCriteria criteria = PaymentSearchCriteria.builder()
+                .siteId(siteId).userId(userId).apartmentNumber(apartmentNumber).buildingNumber(buildingNumber)
+                .paymentType(paymentType).paymentMethod(paymentMethod).status(status)
+                .minAmount(minAmount).maxAmount(maxAmount).startDate(startDate).endDate(endDate)
+                .cursor(cursor).size(size)
+                .build();
+        return ResponseEntity.ok(paymentService.searchPayments(criteria));
+    }
+
+    @GetMapping("/search/explain")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Explain payment search", description = "Admin only - Show the query plan a search would use")
+    public ResponseEntity<Document> explainPaymentSearch(
+            @RequestParam(required = false) String siteId,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String buildingNumber,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+        PaymentSearchCriteria criteria = PaymentSearchCriteria.builder()
+                .siteId(siteId).userId(userId).buildingNumber(buildingNumber).status(status)
+                .startDate(startDate).endDate(endDate)
+                .build();
+        return ResponseEntity.ok(paymentService.explainPaymentSearch(criteria));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export payments", description = "Admin only - Stream payments as CSV or NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String siteId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+        log.info("Exporting payments as {} for site {}", format, siteId);
+        PaymentExportFormat exportFormat = PaymentExportFormat.from(format);
+        PaymentSearchCriteria criteria = PaymentSearchCriteria.builder()
+                .siteId(siteId).status(status).startDate(startDate).endDate(endDate)
+                .build();
+
+        StreamingResponseBody body = out -> paymentExportService.exportPayments(criteria, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("payments-" + LocalDate.now() + exportFormat.getExtension())
+                        .build().toString())
+                .body(body);
     }
 
     @PostMapping("/{id}/installment")
@@ -192,7 +310,15 @@ public class PaymentController {
             @RequestParam Integer totalInstallments,
             @RequestParam String paymentPlan) {
         log.info("Creating payment installment plan for payment ID: {}", id);
-        return ResponseEntity.ok().build();
+        PaymentDto payment = paymentService.createPaymentInstallment(id, totalInstallments, paymentPlan);
+        return ResponseEntity.status(HttpStatus.CREATED).body(payment);
+    }
+
+    @GetMapping("/{id}/installments")
+    @Operation(summary = "Get payment installments", description = "List every installment of the plan the payment belongs to")
+    public ResponseEntity<List<PaymentDto>> getPaymentInstallments(@PathVariable String id) {
+        log.debug("Getting installments for payment ID: {}", id);
+        return ResponseEntity.ok(paymentService.getPaymentInstallments(id));
     }
 
     @PostMapping("/{id}/discount")
@@ -207,9 +333,11 @@ public class PaymentController {
     }
 
     @PostMapping("/{id}/reminder")
+    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Send payment reminder", description = "Send payment reminder notification")
     public ResponseEntity<Void> sendPaymentReminder(@PathVariable String id) {
         log.info("Sending payment reminder for payment ID: {}", id);
-        return ResponseEntity.ok().build();
+        paymentService.sendPaymentReminder(id);
+        return ResponseEntity.accepted().build();
     }
 }
@@ -0,0 +1,25 @@
+package com.smartshopai.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuesGenerationReport {
+
+    private YearMonth dueMonth;
+    private int sitesProcessed;
+    private long apartments;
+    private long created;
+    private long alreadyExisting;
+    @Builder.Default
+    private List<String> failedSites = new ArrayList<>();
+}
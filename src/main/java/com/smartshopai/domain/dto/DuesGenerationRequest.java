@@ -0,0 +1,42 @@
+package com.smartshopai.domain.dto;
+
+import com.smartshopai.domain.entity.Payment;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuesGenerationRequest {
+
+    @NotNull(message = "Due month is required")
+    private YearMonth dueMonth;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    // Empty means every active site
+    private List<String> siteIds;
+
+    @Builder.Default
+    private Payment.PaymentType paymentType = Payment.PaymentType.DUES;
+
+    // Defaults to the last day of the month; clamped for shorter months
+    @Min(1)
+    @Max(31)
+    private Integer dueDay;
+
+    private String description;
+}
@@ -0,0 +1,18 @@
+package com.smartshopai.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileCleanupReport {
+
+    private long deletedFiles;
+    private long deletedBlobs;
+    private long failedBlobs;
+    private long bytesReclaimed;
+}
@@ -0,0 +1,22 @@
+package com.smartshopai.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.core.io.Resource;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileDownload {
+
+    private Resource resource;
+    private String originalFileName;
+    private String mimeType;
+    private String entityTag;
+    private Instant lastModified;
+}
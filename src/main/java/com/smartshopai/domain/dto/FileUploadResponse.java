@@ -24,4 +24,6 @@ public class FileUploadResponse {
     private String uploadedBy;
     private LocalDateTime uploadedAt;
     private String mimeType;
+    private String thumbnailUrl;
+    private String previewUrl;
 }
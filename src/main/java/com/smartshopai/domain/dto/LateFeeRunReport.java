@@ -0,0 +1,27 @@
+package com.smartshopai.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LateFeeRunReport {
+
+    private LocalDate asOf;
+    private int sitesProcessed;
+    private long paymentsScanned;
+    private long paymentsUpdated;
+    @Builder.Default
+    private BigDecimal totalLateFees = BigDecimal.ZERO;
+    @Builder.Default
+    private List<String> failedSites = new ArrayList<>();
+}
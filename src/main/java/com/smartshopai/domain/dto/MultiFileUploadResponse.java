@@ -0,0 +1,30 @@
+package com.smartshopai.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiFileUploadResponse {
+
+    @Builder.Default
+    private List<FileUploadResponse> uploaded = new ArrayList<>();
+    @Builder.Default
+    private List<FileUploadFailure> failed = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FileUploadFailure {
+        private String originalFileName;
+        private String error;
+    }
+}
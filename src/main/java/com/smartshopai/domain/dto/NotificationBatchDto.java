@@ -0,0 +1,26 @@
+package com.smartshopai.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationBatchDto {
+
+    private String batchId;
+    private BatchStatus status;
+    private int totalRecipients;
+    private int insertedCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    public enum BatchStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -38,6 +38,7 @@ public class PaymentDto {
     private Integer installmentNumber;
     private Integer totalInstallments;
     private Payment.PaymentPlan paymentPlan;
+    private String parentPaymentId;
     private BigDecimal discountAmount;
     private String discountReason;
     private Integer paymentRemindersSent;
@@ -48,6 +49,7 @@ public class PaymentDto {
     private String bankName;
     private String accountNumber;
     private String transactionReference;
+    private String siteId;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,21 @@
+package com.smartshopai.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentMigrationStatus {
+
+    private boolean running;
+    private long scannedPayments;
+    private long migratedPayments;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,33 @@
+package com.smartshopai.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentPeriodTotals {
+
+    private String siteId;
+    private Integer year;
+    private Integer month;
+    @Builder.Default
+    private BigDecimal totalDues = BigDecimal.ZERO;
+    @Builder.Default
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+    @Builder.Default
+    private BigDecimal totalPending = BigDecimal.ZERO;
+    @Builder.Default
+    private BigDecimal totalOverdue = BigDecimal.ZERO;
+    @Builder.Default
+    private BigDecimal totalLateFees = BigDecimal.ZERO;
+    private long totalPayments;
+    private long paidPayments;
+    private long pendingPayments;
+    private long overduePayments;
+}
@@ -0,0 +1,32 @@
+package com.smartshopai.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Raw search filters as they arrive on the query string; the service parses and validates them.
+ * {@code cursor} is the opaque {@link PaymentSearchPage#getNextCursor()} of the previous page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSearchCriteria {
+
+    private String siteId;
+    private String userId;
+    private String apartmentNumber;
+    private String buildingNumber;
+    private String paymentType;
+    private String paymentMethod;
+    private String status;
+    private String minAmount;
+    private String maxAmount;
+    private String startDate;
+    private String endDate;
+
+    private String cursor;
+    private Integer size;
+}
@@ -0,0 +1,20 @@
+package com.smartshopai.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSearchPage {
+
+    private List<PaymentDto> payments;
+    private int size;
+    private boolean hasMore;
+    private String nextCursor;
+}
@@ -0,0 +1,38 @@
+package com.smartshopai.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "file_access_logs")
+public class FileAccessLog {
+
+    @Id
+    private String id;
+
+    @Field("file_id")
+    @Indexed
+    private String fileId;
+
+    @Field("user_id")
+    private String userId;
+
+    @Field("site_id")
+    private String siteId;
+
+    // MongoDB removes entries on its own once they pass the retention window
+    @Field("accessed_at")
+    @Indexed(name = "accessed_at_ttl", expireAfter = "90d")
+    private LocalDateTime accessedAt;
+}
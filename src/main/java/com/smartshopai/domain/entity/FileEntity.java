@@ -9,19 +9,28 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "files")
+@CompoundIndexes({
+        @CompoundIndex(name = "site_search_tokens", def = "{'site_id': 1, 'search_tokens': 1}")
+})
 public class FileEntity {
 
+    // Daily payment exports; they hold every resident's payments, so only admins of the owning site see them
+    public static final String PAYMENT_REPORT_CATEGORY = "PAYMENT_REPORT";
+
     @Id
     private String id;
 
@@ -31,6 +40,7 @@ public class FileEntity {
 
     @NotBlank(message = "Stored file name is required")
     @Field("stored_file_name")
+    @Indexed
     private String storedFileName;
 
     @NotBlank(message = "File URL is required")
@@ -75,12 +85,18 @@ public class FileEntity {
     private boolean isPublic = false;
 
     @Field("expires_at")
+    @Indexed(sparse = true)
     private LocalDateTime expiresAt;
 
     @Field("metadata")
     private String metadata;
 
+    @Field("search_tokens")
+    @Indexed
+    private List<String> searchTokens;
+
     @Field("file_hash")
+    @Indexed
     private String fileHash;
 
     @Field("virus_scan_status")
@@ -101,14 +117,11 @@ public class FileEntity {
 
     @Field("download_count")
     @Builder.Default
-    private Integer downloadCount = 0;
+    private Long downloadCount = 0L;
 
     @Field("last_downloaded")
     private LocalDateTime lastDownloaded;
 
-    @Field("access_logs")
-    private String[] accessLogs;
-
     @Field("site_id")
     @NotBlank
     private String siteId; // Site ID for multi-tenant
@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -21,6 +23,9 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "notifications")
+@CompoundIndexes({
+        @CompoundIndex(name = "outbox_claim", def = "{'delivery_status': 1, 'next_attempt_at': 1}")
+})
 public class Notification {
 
     @Id
@@ -81,6 +86,18 @@ public class Notification {
     @Builder.Default
     private int retryCount = 0;
 
+    @Field("next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Field("lease_owner")
+    private String leaseOwner;
+
+    @Field("lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Field("last_error")
+    private String lastError;
+
     @Field("scheduled_for")
     private LocalDateTime scheduledFor;
 
@@ -10,6 +10,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -20,10 +22,24 @@ import java.time.LocalDateTime;
 import java.time.YearMonth;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "payments")
+@CompoundIndexes({
+        @CompoundIndex(name = "due_year_month", def = "{'due_year': 1, 'due_month_number': 1}"),
+        @CompoundIndex(name = "status_due", def = "{'status': 1, 'due_date': 1}"),
+        @CompoundIndex(name = "site_status_due", def = "{'site_id': 1, 'status': 1, 'due_date': 1, '_id': 1}"),
+        @CompoundIndex(name = "site_building_status_due", def = "{'site_id': 1, 'building_number': 1, 'status': 1, 'due_date': 1, '_id': 1}"),
+        @CompoundIndex(name = "site_due", def = "{'site_id': 1, 'due_date': 1, '_id': 1}"),
+        @CompoundIndex(name = "updated_site", def = "{'updated_at': 1, 'site_id': 1}"),
+        @CompoundIndex(name = "site_apartment_dues", unique = true, partialFilter = "{'dues_generated': true}",
+                def = "{'site_id': 1, 'building_number': 1, 'apartment_number': 1, 'due_year': 1, 'due_month_number': 1, 'payment_type': 1}"),
+        // installment_plan serves findByInstallmentNumber, plan_installment serves findByPaymentPlan
+        @CompoundIndex(name = "installment_plan", def = "{'installment_number': 1, 'payment_plan': 1}"),
+        @CompoundIndex(name = "plan_installment", def = "{'payment_plan': 1, 'installment_number': 1}"),
+        @CompoundIndex(name = "parent_installment", def = "{'parent_payment_id': 1, 'installment_number': 1}")
+})
 public class Payment {
 
     @Id
@@ -103,8 +119,12 @@ public class Payment {
     private Integer totalInstallments;
 
     @Field("payment_plan")
+    @Indexed(sparse = true)
     private PaymentPlan paymentPlan;
 
+    @Field("parent_payment_id")
+    private String parentPaymentId;
+
     @Field("discount_amount")
     private BigDecimal discountAmount;
 
@@ -125,6 +145,10 @@ public class Payment {
     @Field("auto_payment_method")
     private PaymentMethod autoPaymentMethod;
 
+    // Set on rows created by the dues run; only those are held unique per apartment and month
+    @Field("dues_generated")
+    private Boolean duesGenerated;
+
     @Field("site_id")
     @NotBlank
     private String siteId; // Site ID for multi-tenant
@@ -0,0 +1,70 @@
+package com.smartshopai.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "payment_rollups")
+@CompoundIndex(name = "site_year_month", def = "{'site_id': 1, 'year': 1, 'month': 1}", unique = true)
+public class PaymentRollup {
+
+    @Id
+    private String id;
+
+    @Field("site_id")
+    private String siteId;
+
+    @Field("year")
+    private Integer year;
+
+    @Field("month")
+    private Integer month;
+
+    @Field(name = "total_dues", targetType = FieldType.DECIMAL128)
+    @Builder.Default
+    private BigDecimal totalDues = BigDecimal.ZERO;
+
+    @Field(name = "total_paid", targetType = FieldType.DECIMAL128)
+    @Builder.Default
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+
+    @Field(name = "total_pending", targetType = FieldType.DECIMAL128)
+    @Builder.Default
+    private BigDecimal totalPending = BigDecimal.ZERO;
+
+    @Field(name = "total_overdue", targetType = FieldType.DECIMAL128)
+    @Builder.Default
+    private BigDecimal totalOverdue = BigDecimal.ZERO;
+
+    @Field(name = "total_late_fees", targetType = FieldType.DECIMAL128)
+    @Builder.Default
+    private BigDecimal totalLateFees = BigDecimal.ZERO;
+
+    @Field("total_payments")
+    private long totalPayments;
+
+    @Field("paid_payments")
+    private long paidPayments;
+
+    @Field("pending_payments")
+    private long pendingPayments;
+
+    @Field("overdue_payments")
+    private long overduePayments;
+
+    @Field("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -29,6 +29,7 @@ public interface PaymentMapper {
     @Mapping(target = "dueMonth", ignore = true)
     @Mapping(target = "dueYear", ignore = true)
     @Mapping(target = "dueMonthNumber", ignore = true)
+    @Mapping(target = "parentPaymentId", ignore = true)
     void updateEntityFromDto(PaymentDto paymentDto, @MappingTarget Payment payment);
 
     @Mapping(target = "dueYear", expression = "java(payment.getDueMonth() != null ? payment.getDueMonth().getYear() : null)")
@@ -0,0 +1,43 @@
+package com.smartshopai.interceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartshopai.config.RateLimitConfig;
+import io.github.bucket4j.Bucket;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class RateLimitBucketRegistry {
+
+    private final RateLimitConfig rateLimitConfig;
+    private final Cache<String, Bucket> buckets;
+
+    public RateLimitBucketRegistry(RateLimitConfig rateLimitConfig) {
+        this.rateLimitConfig = rateLimitConfig;
+        // Idle buckets are full again by the time they expire, so evicting them never grants extra requests
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimitConfig.getMaxBuckets())
+                .expireAfterAccess(Duration.ofSeconds(rateLimitConfig.getBucketIdleSeconds()))
+                .build();
+    }
+
+    public Bucket resolve(RateLimitPolicy policy, String key) {
+        return buckets.get(policy.name() + ":" + key, k -> Bucket.builder()
+                .addLimit(policyFor(policy).toBandwidth())
+                .build());
+    }
+
+    public RateLimitConfig.Policy policyFor(RateLimitPolicy policy) {
+        return switch (policy) {
+            case STRICT -> rateLimitConfig.getStrictPolicy();
+            case SITE -> rateLimitConfig.getSitePolicy();
+            case DEFAULT -> rateLimitConfig.getDefaultPolicy();
+        };
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -1,29 +1,96 @@
 package com.smartshopai.interceptor;
 
+import com.smartshopai.domain.entity.User;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Component
 @RequiredArgsConstructor
 public class RateLimitInterceptor implements HandlerInterceptor {
 
-    private final Bucket rateLimitBucket;
+    private final RateLimitBucketRegistry bucketRegistry;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        // Rate limit kontrolü
-        if (rateLimitBucket.tryConsume(1)) {
-            return true;
+        // Auth endpoint'leri IP bazında sıkı limitle korunur
+        if (request.getServletPath().startsWith("/auth/")) {
+            return tryConsume(response, new Limit(RateLimitPolicy.STRICT, "ip:" + clientIp(request)));
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            Limit userLimit = new Limit(RateLimitPolicy.DEFAULT, "user:" + user.getId());
+            return user.getSiteId() == null
+                    ? tryConsume(response, userLimit)
+                    : tryConsume(response, userLimit, new Limit(RateLimitPolicy.SITE, "site:" + user.getSiteId()));
         }
-        
+
+        return tryConsume(response, new Limit(RateLimitPolicy.DEFAULT, "ip:" + clientIp(request)));
+    }
+
+    /**
+     * Takes one token from every bucket or from none: when a later bucket rejects, the tokens already taken are
+     * refunded. The headers describe the bucket that rejected, or else the one with the fewest tokens left.
+     */
+    private boolean tryConsume(HttpServletResponse response, Limit... limits) throws Exception {
+        List<Bucket> consumed = new ArrayList<>(limits.length);
+        Limit tightest = null;
+        ConsumptionProbe tightestProbe = null;
+
+        for (Limit limit : limits) {
+            Bucket bucket = bucketRegistry.resolve(limit.policy(), limit.key());
+            ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+            if (!probe.isConsumed()) {
+                consumed.forEach(taken -> taken.addTokens(1));
+                writeHeaders(limit.policy(), probe, response);
+                return reject(limit.policy(), probe, response);
+            }
+            consumed.add(bucket);
+            if (tightestProbe == null || probe.getRemainingTokens() < tightestProbe.getRemainingTokens()) {
+                tightest = limit;
+                tightestProbe = probe;
+            }
+        }
+
+        writeHeaders(tightest.policy(), tightestProbe, response);
+        return true;
+    }
+
+    private void writeHeaders(RateLimitPolicy policy, ConsumptionProbe probe, HttpServletResponse response) {
+        response.setHeader("X-RateLimit-Limit", String.valueOf(bucketRegistry.policyFor(policy).getCapacity()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
+        response.setHeader("X-RateLimit-Reset", String.valueOf(TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill())));
+    }
+
+    private boolean reject(RateLimitPolicy policy, ConsumptionProbe probe, HttpServletResponse response) throws Exception {
         // Rate limit aşıldı
+        long secondsToRefill = TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill());
+        meterRegistry.counter("rate_limit.rejected", "policy", policy.name()).increment();
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, secondsToRefill)));
         response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
         response.getWriter().write("Rate limit exceeded. Please try again later.");
         return false;
     }
+
+    // Proxy headers are resolved by server.forward-headers-strategy; a raw X-Forwarded-For is client controlled
+    private String clientIp(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    private record Limit(RateLimitPolicy policy, String key) {
+    }
 }
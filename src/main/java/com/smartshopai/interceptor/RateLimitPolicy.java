@@ -0,0 +1,5 @@
+package com.smartshopai.interceptor;
+
+public enum RateLimitPolicy {
+    DEFAULT, STRICT, SITE
+}
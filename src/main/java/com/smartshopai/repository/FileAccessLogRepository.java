@@ -0,0 +1,9 @@
+package com.smartshopai.repository;
+
+import com.smartshopai.domain.entity.FileAccessLog;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FileAccessLogRepository extends MongoRepository<FileAccessLog, String> {
+}
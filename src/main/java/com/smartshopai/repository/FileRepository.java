@@ -21,6 +21,8 @@ public interface FileRepository extends MongoRepository<FileEntity, String> {
 
     List<FileEntity> findByOriginalFileNameContainingIgnoreCase(String filename);
 
+    long countByStoredFileName(String storedFileName);
+
     long countByCategory(String category);
 
     long countByUploadedBy(String uploadedBy);
@@ -39,7 +39,7 @@ public interface NotificationRepository extends MongoRepository<Notification, St
     long countByDeliveryStatus(Notification.DeliveryStatus deliveryStatus);
 
     @Query("{ 'deliveryStatus' : 'FAILED', 'retryCount' : { $lt: 3 } }")
-    List<Notification> findFailedNotificationsForRetry();
+    List<Notification> findFailedNotificationsForRetry(Pageable pageable);
 
     List<Notification> findByTargetUserIdAndType(String targetUserId, String type);
 
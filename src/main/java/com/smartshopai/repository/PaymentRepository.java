@@ -14,7 +14,7 @@ import java.time.YearMonth;
 import java.util.List;
 
 @Repository
-public interface PaymentRepository extends MongoRepository<Payment, String> {
+public interface PaymentRepository extends MongoRepository<Payment, String>, PaymentRepositoryCustom {
 
     List<Payment> findByUserId(String userId);
 
@@ -73,6 +73,8 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
 
     List<Payment> findByPaymentPlan(Payment.PaymentPlan paymentPlan);
 
+    List<Payment> findByParentPaymentIdOrderByInstallmentNumber(String parentPaymentId);
+
     @Query("{ 'discountAmount' : { $gt: 0 } }")
     List<Payment> findPaymentsWithDiscounts();
 
@@ -0,0 +1,14 @@
+package com.smartshopai.repository;
+
+import com.smartshopai.domain.dto.PaymentPeriodTotals;
+
+import java.util.List;
+
+public interface PaymentRepositoryCustom {
+
+    PaymentPeriodTotals aggregateTotals();
+
+    List<PaymentPeriodTotals> aggregateMonthlyTotals(Integer year, Integer month);
+
+    List<PaymentPeriodTotals> aggregateSiteMonthlyTotals(String siteId, Integer year, Integer month);
+}
@@ -0,0 +1,142 @@
+package com.smartshopai.repository;
+
+import com.smartshopai.domain.dto.PaymentPeriodTotals;
+import com.smartshopai.domain.entity.Payment;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public PaymentPeriodTotals aggregateTotals() {
+        TypedAggregation<Payment> aggregation = Aggregation.newAggregation(Payment.class,
+                withTotals(Aggregation.group()));
+
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        return result != null ? toTotals(result) : PaymentPeriodTotals.builder().build();
+    }
+
+    @Override
+    public List<PaymentPeriodTotals> aggregateMonthlyTotals(Integer year, Integer month) {
+        Criteria criteria = Criteria.where("dueYear").is(year);
+        if (month != null) {
+            criteria = criteria.and("dueMonthNumber").is(month);
+        }
+
+        TypedAggregation<Payment> aggregation = Aggregation.newAggregation(Payment.class,
+                Aggregation.match(criteria),
+                withTotals(Aggregation.group("dueMonthNumber")),
+                Aggregation.sort(Sort.Direction.ASC, "_id"));
+
+        return mongoTemplate.aggregate(aggregation, Document.class).getMappedResults().stream()
+                .map(document -> {
+                    PaymentPeriodTotals totals = toTotals(document);
+                    totals.setYear(year);
+                    totals.setMonth(document.getInteger("_id"));
+                    return totals;
+                })
+                .toList();
+    }
+
+    @Override
+    public List<PaymentPeriodTotals> aggregateSiteMonthlyTotals(String siteId, Integer year, Integer month) {
+        Criteria criteria = year != null ? Criteria.where("dueYear").is(year) : Criteria.where("dueYear").ne(null);
+        criteria = month != null ? criteria.and("dueMonthNumber").is(month) : criteria.and("dueMonthNumber").ne(null);
+        if (siteId != null) {
+            criteria = criteria.and("siteId").is(siteId);
+        }
+
+        TypedAggregation<Payment> aggregation = Aggregation.newAggregation(Payment.class,
+                Aggregation.match(criteria),
+                withTotals(Aggregation.group("siteId", "dueYear", "dueMonthNumber")));
+
+        return mongoTemplate.aggregate(aggregation, Document.class).getMappedResults().stream()
+                .map(document -> {
+                    Document key = document.get("_id", Document.class);
+                    PaymentPeriodTotals totals = toTotals(document);
+                    totals.setSiteId(key.getString("siteId"));
+                    totals.setYear(key.getInteger("dueYear"));
+                    totals.setMonth(key.getInteger("dueMonthNumber"));
+                    return totals;
+                })
+                .toList();
+    }
+
+    // Money fields may still be persisted as strings, so every sum goes through $toDecimal
+    private GroupOperation withTotals(GroupOperation group) {
+        AggregationExpression amount = ConvertOperators.valueOf("amount").convertToDecimal();
+        AggregationExpression lateFee = ConvertOperators.valueOf(
+                ConditionalOperators.ifNull("lateFee").then(0)).convertToDecimal();
+        AggregationExpression totalAmount = ConvertOperators.valueOf(
+                ConditionalOperators.ifNull("totalAmount").thenValueOf("amount")).convertToDecimal();
+
+        return group
+                .count().as("totalPayments")
+                .sum(amount).as("totalDues")
+                .sum(sumIf(Payment.PaymentStatus.PAID, amount)).as("totalPaid")
+                .sum(sumIf(Payment.PaymentStatus.PENDING, amount)).as("totalPending")
+                .sum(sumIf(Payment.PaymentStatus.OVERDUE, totalAmount)).as("totalOverdue")
+                .sum(lateFee).as("totalLateFees")
+                .sum(countIf(Payment.PaymentStatus.PAID)).as("paidPayments")
+                .sum(countIf(Payment.PaymentStatus.PENDING)).as("pendingPayments")
+                .sum(countIf(Payment.PaymentStatus.OVERDUE)).as("overduePayments");
+    }
+
+    private AggregationExpression sumIf(Payment.PaymentStatus status, AggregationExpression value) {
+        return ConditionalOperators.when(Criteria.where("status").is(status.name()))
+                .thenValueOf(value)
+                .otherwise(0);
+    }
+
+    private AggregationExpression countIf(Payment.PaymentStatus status) {
+        return ConditionalOperators.when(Criteria.where("status").is(status.name()))
+                .then(1)
+                .otherwise(0);
+    }
+
+    private PaymentPeriodTotals toTotals(Document document) {
+        return PaymentPeriodTotals.builder()
+                .totalDues(decimalValue(document, "totalDues"))
+                .totalPaid(decimalValue(document, "totalPaid"))
+                .totalPending(decimalValue(document, "totalPending"))
+                .totalOverdue(decimalValue(document, "totalOverdue"))
+                .totalLateFees(decimalValue(document, "totalLateFees"))
+                .totalPayments(longValue(document, "totalPayments"))
+                .paidPayments(longValue(document, "paidPayments"))
+                .pendingPayments(longValue(document, "pendingPayments"))
+                .overduePayments(longValue(document, "overduePayments"))
+                .build();
+    }
+
+    private static BigDecimal decimalValue(Document document, String key) {
+        Object value = document.get(key);
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static long longValue(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+}
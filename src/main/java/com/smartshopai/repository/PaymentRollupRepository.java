@@ -0,0 +1,15 @@
+package com.smartshopai.repository;
+
+import com.smartshopai.domain.entity.PaymentRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentRollupRepository extends MongoRepository<PaymentRollup, String> {
+
+    List<PaymentRollup> findByYear(Integer year);
+
+    List<PaymentRollup> findByYearAndMonth(Integer year, Integer month);
+}
@@ -0,0 +1,53 @@
+package com.smartshopai.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class AuthenticatedUserCache {
+
+    private final Cache<String, UserDetails> users;
+    private final Cache<String, Instant> revocations;
+
+    public AuthenticatedUserCache(
+            @Value("${spring.security.jwt.user-cache-ttl-seconds:60}") long userCacheTtlSeconds,
+            @Value("${spring.security.jwt.expiration}") long jwtExpiration) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(userCacheTtlSeconds))
+                .recordStats()
+                .build();
+        // Refresh tokens live twice as long as access tokens, so revocations must outlive both
+        this.revocations = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMillis(jwtExpiration * 2))
+                .build();
+    }
+
+    public UserDetails getOrLoad(String email, Function<String, UserDetails> loader) {
+        return users.get(email, loader);
+    }
+
+    public boolean isRevoked(String email, Date issuedAt) {
+        Instant revokedAt = revocations.getIfPresent(email);
+        return revokedAt != null && (issuedAt == null || !issuedAt.toInstant().isAfter(revokedAt));
+    }
+
+    public void revoke(String email) {
+        if (email != null) {
+            users.invalidate(email);
+            revocations.put(email, Instant.now());
+            log.debug("Revoked cached authentication for user: {}", email);
+        }
+    }
+}
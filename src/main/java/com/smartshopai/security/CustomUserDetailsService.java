@@ -19,11 +19,11 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        log.info("Loading user by email: {}", email);
+        log.debug("Loading user by email: {}", email);
         
         try {
             // MongoDB'den kullanıcıyı çekmeye çalış
-            log.info("Attempting to find user in database with email: {}", email);
+            log.debug("Attempting to find user in database with email: {}", email);
             User user = userRepository.findByEmail(email)
                     .orElse(null);
             
@@ -32,14 +32,14 @@ public class CustomUserDetailsService implements UserDetailsService {
                 throw new UsernameNotFoundException("User not found with email: " + email);
             }
 
-            log.info("User found in database: ID={}, Email={}, Enabled={}", user.getId(), user.getEmail(), user.isEnabled());
+            log.debug("User found in database: ID={}, Email={}, Enabled={}", user.getId(), user.getEmail(), user.isEnabled());
             
             if (!user.isEnabled()) {
                 log.warn("User account is disabled: {}", email);
                 throw new UsernameNotFoundException("User account is disabled: " + email);
             }
 
-            log.info("User loaded successfully: {}", email);
+            log.debug("User loaded successfully: {}", email);
             return user;
             
         } catch (Exception e) {
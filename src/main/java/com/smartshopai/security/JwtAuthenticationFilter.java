@@ -1,11 +1,14 @@
 package com.smartshopai.security;
 
+import com.smartshopai.domain.entity.User;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,6 +19,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -24,6 +28,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final AuthenticatedUserCache authenticatedUserCache;
+
+    @Value("${spring.security.jwt.stateless:false}")
+    private boolean statelessAuthentication;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -57,12 +65,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             jwt = authHeader.substring(7);
-            userEmail = jwtService.extractUsername(jwt);
+            Claims claims = jwtService.parseClaims(jwt);
+            userEmail = claims.getSubject();
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                UserDetails userDetails = resolveUser(claims, userEmail);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -80,4 +89,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Tokens carrying role/site claims are trusted as-is unless the user was changed after they were issued;
+    // everything else goes through a short-lived cache in front of the user lookup
+    private UserDetails resolveUser(Claims claims, String userEmail) {
+        if (statelessAuthentication && !authenticatedUserCache.isRevoked(userEmail, claims.getIssuedAt())) {
+            Optional<User> claimedUser = jwtService.extractUser(claims);
+            if (claimedUser.isPresent()) {
+                return claimedUser.get();
+            }
+        }
+        return authenticatedUserCache.getOrLoad(userEmail, userDetailsService::loadUserByUsername);
+    }
 }
@@ -1,10 +1,13 @@
 package com.smartshopai.security;
 
+import com.smartshopai.domain.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,10 +15,15 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -23,12 +31,27 @@ import java.util.function.Function;
 @Slf4j
 public class JwtService {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_SITE_ID = "siteId";
+    public static final String CLAIM_SITE_ROLE = "siteRole";
+
     @Value("${spring.security.jwt.secret}")
     private String secretKey;
 
     @Value("${spring.security.jwt.expiration}")
     private long jwtExpiration;
 
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void initializeSigningKey() {
+        signingKey = getSignInKey();
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -44,7 +67,7 @@ public class JwtService {
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        return generateToken(userClaims(userDetails), userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -62,7 +85,7 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -71,14 +94,55 @@ public class JwtService {
         return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
     }
 
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject()) && claims.getExpiration().after(new Date());
+    }
+
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
+    /**
+     * Rebuilds the principal from the claims embedded by {@link #generateToken(UserDetails)}.
+     * Empty for tokens issued without them (e.g. refresh tokens), which must be resolved from the database.
+     */
+    public Optional<User> extractUser(Claims claims) {
+        Collection<?> roles = claims.get(CLAIM_ROLES, List.class);
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        if (roles == null || userId == null) {
+            return Optional.empty();
+        }
+
+        String siteRole = claims.get(CLAIM_SITE_ROLE, String.class);
+        return Optional.of(User.builder()
+                .id(userId)
+                .email(claims.getSubject())
+                .siteId(claims.get(CLAIM_SITE_ID, String.class))
+                .siteRole(siteRole != null ? User.SiteRole.valueOf(siteRole) : null)
+                .roles(roles.stream()
+                        .map(role -> User.Role.valueOf(role.toString()))
+                        .collect(Collectors.toUnmodifiableSet()))
+                .build());
+    }
+
+    private Map<String, Object> userClaims(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_SITE_ID, user.getSiteId());
+            claims.put(CLAIM_SITE_ROLE, user.getSiteRole() != null ? user.getSiteRole().name() : null);
+            Set<User.Role> roles = user.getRoles() != null ? user.getRoles() : Set.of();
+            claims.put(CLAIM_ROLES, roles.stream().map(Enum::name).toList());
+        }
+        return claims;
+    }
+
     private boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .setSigningKey(getSignInKey())
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
@@ -0,0 +1,90 @@
+package com.smartshopai.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartshopai.domain.entity.User;
+import com.smartshopai.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+@Slf4j
+public class SitePermissionResolver {
+
+    private static final String REQUEST_ATTRIBUTE_PREFIX = SitePermissionResolver.class.getName() + ".";
+
+    private final UserRepository userRepository;
+    private final Cache<String, Optional<SitePermissionSnapshot>> snapshots;
+
+    public SitePermissionResolver(UserRepository userRepository) {
+        this.userRepository = userRepository;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<SitePermissionSnapshot> resolve(String userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        String attributeName = REQUEST_ATTRIBUTE_PREFIX + userId;
+        if (requestAttributes != null
+                && requestAttributes.getAttribute(attributeName, RequestAttributes.SCOPE_REQUEST) instanceof SitePermissionSnapshot snapshot) {
+            return Optional.of(snapshot);
+        }
+
+        Optional<SitePermissionSnapshot> snapshot = snapshots.get(userId, this::load);
+        if (requestAttributes != null && snapshot.isPresent()) {
+            requestAttributes.setAttribute(attributeName, snapshot.get(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return snapshot;
+    }
+
+    public Optional<SitePermissionSnapshot> resolveCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            // The principal was either just loaded or rebuilt from token claims, so it is already a fresh snapshot
+            return Optional.of(SitePermissionSnapshot.of(user));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Site that a query of the current user is limited to. Super admins and system calls without an authenticated
+     * user keep the requested site (null meaning all sites); everyone else is pinned to their own site.
+     */
+    public String scopeSiteId(String requestedSiteId) {
+        Optional<SitePermissionSnapshot> current = resolveCurrentUser();
+        if (current.isEmpty() || current.get().isSuperAdmin()) {
+            return requestedSiteId;
+        }
+        if (current.get().siteId() == null) {
+            throw new AccessDeniedException("User " + current.get().userId() + " is not assigned to a site");
+        }
+        return current.get().siteId();
+    }
+
+    public void evict(String userId) {
+        if (userId != null) {
+            snapshots.invalidate(userId);
+            log.debug("Evicted cached permissions for user: {}", userId);
+        }
+    }
+
+    private Optional<SitePermissionSnapshot> load(String userId) {
+        log.debug("Loading permissions for user: {}", userId);
+        return userRepository.findById(userId).map(SitePermissionSnapshot::of);
+    }
+}
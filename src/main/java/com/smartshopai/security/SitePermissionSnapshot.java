@@ -0,0 +1,29 @@
+package com.smartshopai.security;
+
+import com.smartshopai.domain.entity.User;
+
+import java.util.Set;
+
+public record SitePermissionSnapshot(String userId, String siteId, User.SiteRole siteRole, Set<User.Role> roles) {
+
+    public static SitePermissionSnapshot of(User user) {
+        return new SitePermissionSnapshot(user.getId(), user.getSiteId(), user.getSiteRole(),
+                user.getRoles() != null ? Set.copyOf(user.getRoles()) : Set.of());
+    }
+
+    public boolean isSuperAdmin() {
+        return roles.contains(User.Role.SUPER_ADMIN);
+    }
+
+    public boolean belongsToSite(String siteId) {
+        return siteId != null && siteId.equals(this.siteId);
+    }
+
+    public boolean isSiteAdminOf(String siteId) {
+        return belongsToSite(siteId) && siteRole == User.SiteRole.SITE_ADMIN;
+    }
+
+    public boolean isAdminOf(String siteId) {
+        return isSuperAdmin() || (roles.contains(User.Role.ADMIN) && belongsToSite(siteId));
+    }
+}
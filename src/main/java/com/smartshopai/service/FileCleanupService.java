@@ -0,0 +1,10 @@
+package com.smartshopai.service;
+
+import com.smartshopai.domain.dto.FileCleanupReport;
+
+public interface FileCleanupService {
+
+    FileCleanupReport cleanupExpiredFiles();
+
+    FileCleanupReport sweepOrphanFiles();
+}
@@ -1,6 +1,10 @@
 package com.smartshopai.service;
 
+import com.smartshopai.domain.dto.FileDownload;
 import com.smartshopai.domain.dto.FileUploadResponse;
+import com.smartshopai.domain.dto.MultiFileUploadResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -9,15 +13,23 @@ public interface FileService {
 
     FileUploadResponse uploadFile(MultipartFile file, String category);
 
-    List<FileUploadResponse> uploadMultipleFiles(List<MultipartFile> files, String category);
+    MultiFileUploadResponse uploadMultipleFiles(List<MultipartFile> files, String category);
 
     void deleteFile(String fileId);
 
     FileUploadResponse getFileInfo(String fileId);
 
+    FileDownload loadFileContent(String fileId);
+
+    FileDownload loadFileDerivative(String fileId, String derivative);
+
     List<FileUploadResponse> getFilesByCategory(String category);
 
     List<FileUploadResponse> getFilesByUserId(String userId);
 
+    Page<FileUploadResponse> searchFiles(String query, String category, String siteId, Pageable pageable);
+
+    int reindexSearchTokens();
+
     FileUploadResponse updateFileMetadata(String fileId, String description, String category);
 }
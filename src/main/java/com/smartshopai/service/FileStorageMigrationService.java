@@ -0,0 +1,10 @@
+package com.smartshopai.service;
+
+import com.smartshopai.domain.dto.StorageMigrationStatus;
+
+public interface FileStorageMigrationService {
+
+    StorageMigrationStatus startMigration();
+
+    StorageMigrationStatus getStatus();
+}
@@ -0,0 +1,33 @@
+package com.smartshopai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartshopai.domain.dto.NotificationBatchDto;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+@Component
+public class NotificationBatchTracker {
+
+    // Finished batches stay pollable for a while; the notifications themselves carry the batchId for good
+    private final Cache<String, NotificationBatchDto> batches = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(6))
+            .build();
+
+    public void register(NotificationBatchDto batch) {
+        batches.put(batch.getBatchId(), batch);
+    }
+
+    // Snapshots are replaced, never mutated, so pollers always see a consistent view
+    public void update(String batchId, UnaryOperator<NotificationBatchDto.NotificationBatchDtoBuilder> change) {
+        batches.asMap().computeIfPresent(batchId, (id, current) -> change.apply(current.toBuilder()).build());
+    }
+
+    public Optional<NotificationBatchDto> get(String batchId) {
+        return Optional.ofNullable(batches.getIfPresent(batchId));
+    }
+}
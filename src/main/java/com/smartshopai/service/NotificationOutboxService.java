@@ -0,0 +1,6 @@
+package com.smartshopai.service;
+
+public interface NotificationOutboxService {
+
+    int processOutbox();
+}
@@ -0,0 +1,12 @@
+package com.smartshopai.service;
+
+import com.smartshopai.domain.entity.Notification;
+
+public interface NotificationSender {
+
+    /**
+     * Delivers the notification to its target and returns the provider message id.
+     * Any exception is treated as a failed attempt and retried with backoff.
+     */
+    String send(Notification notification) throws Exception;
+}
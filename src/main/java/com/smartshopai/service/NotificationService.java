@@ -1,5 +1,6 @@
 package com.smartshopai.service;
 
+import com.smartshopai.domain.dto.NotificationBatchDto;
 import com.smartshopai.domain.dto.NotificationDto;
 
 import java.util.List;
@@ -8,15 +9,25 @@ public interface NotificationService {
 
     void sendNotificationToUser(String userId, NotificationDto notification);
 
-    void sendNotificationToUsers(List<String> userIds, NotificationDto notification);
+    NotificationBatchDto sendNotificationToUsers(List<String> userIds, NotificationDto notification);
 
-    void sendNotificationToAllUsers(NotificationDto notification);
+    NotificationBatchDto sendNotificationToAllUsers(NotificationDto notification);
 
-    void sendNotificationToUsersByRole(String role, NotificationDto notification);
+    NotificationBatchDto sendNotificationToUsersByRole(String role, NotificationDto notification);
 
-    void sendNotificationToUsersByApartment(String apartmentNumber, NotificationDto notification);
+    NotificationBatchDto sendNotificationToUsersByApartment(String apartmentNumber, NotificationDto notification);
 
-    void sendNotificationToUsersByBuilding(String buildingNumber, NotificationDto notification);
+    NotificationBatchDto sendNotificationToUsersByBuilding(String buildingNumber, NotificationDto notification);
+
+    NotificationBatchDto sendNotificationsToSite(String siteId, List<NotificationDto> notifications);
+
+    /**
+     * Writes the notifications on the calling thread regardless of async dispatch and returns the finished batch,
+     * so callers can act on COMPLETED or FAILED.
+     */
+    NotificationBatchDto sendNotificationsToSiteAndWait(String siteId, List<NotificationDto> notifications);
+
+    NotificationBatchDto getNotificationBatch(String batchId);
 
     void updateUserFcmToken(String userId, String fcmToken);
 
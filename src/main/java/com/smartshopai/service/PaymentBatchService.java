@@ -0,0 +1,16 @@
+package com.smartshopai.service;
+
+import com.smartshopai.domain.dto.DuesGenerationReport;
+import com.smartshopai.domain.dto.DuesGenerationRequest;
+import com.smartshopai.domain.dto.LateFeeRunReport;
+
+import java.time.LocalDate;
+
+public interface PaymentBatchService {
+
+    LateFeeRunReport applyLateFees(LocalDate asOf);
+
+    long markOverduePayments(LocalDate asOf);
+
+    DuesGenerationReport generateDues(DuesGenerationRequest request);
+}
@@ -0,0 +1,15 @@
+package com.smartshopai.service;
+
+import com.smartshopai.domain.dto.PaymentExportFormat;
+import com.smartshopai.domain.dto.PaymentSearchCriteria;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface PaymentExportService {
+
+    void exportPayments(PaymentSearchCriteria criteria, PaymentExportFormat format, OutputStream out) throws IOException;
+
+    int generateDailyReports(LocalDate day);
+}
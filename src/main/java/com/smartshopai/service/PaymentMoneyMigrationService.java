@@ -0,0 +1,10 @@
+package com.smartshopai.service;
+
+import com.smartshopai.domain.dto.PaymentMigrationStatus;
+
+public interface PaymentMoneyMigrationService {
+
+    PaymentMigrationStatus startMigration();
+
+    PaymentMigrationStatus getStatus();
+}
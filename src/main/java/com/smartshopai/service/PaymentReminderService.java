@@ -0,0 +1,10 @@
+package com.smartshopai.service;
+
+import java.time.Instant;
+
+public interface PaymentReminderService {
+
+    int sendDueReminders(Instant now);
+
+    void sendReminder(String paymentId);
+}
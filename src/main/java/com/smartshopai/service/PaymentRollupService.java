@@ -0,0 +1,17 @@
+package com.smartshopai.service;
+
+import com.smartshopai.domain.dto.PaymentPeriodTotals;
+import com.smartshopai.domain.entity.Payment;
+
+import java.util.List;
+
+public interface PaymentRollupService {
+
+    void recordChange(Payment before, Payment after);
+
+    List<PaymentPeriodTotals> getMonthlyTotals(Integer year, Integer month);
+
+    int rebuildRollups();
+
+    int rebuildRollups(String siteId);
+}
@@ -1,10 +1,13 @@
 package com.smartshopai.service;
 
 import com.smartshopai.domain.dto.PaymentDto;
+import com.smartshopai.domain.dto.PaymentSearchCriteria;
+import com.smartshopai.domain.dto.PaymentSearchPage;
 import com.smartshopai.domain.dto.PaymentStatistics;
 import com.smartshopai.domain.dto.MonthlyPaymentSummary;
 import com.smartshopai.domain.dto.YearlyPaymentSummary;
 import com.smartshopai.domain.entity.Payment;
+import org.bson.Document;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -47,12 +50,14 @@ public interface PaymentService {
 
     YearlyPaymentSummary getYearlyPaymentSummary(Integer year);
 
-    List<PaymentDto> searchPayments(String userId, String apartmentNumber, String buildingNumber,
-                                   String paymentType, String paymentMethod, String status,
-                                   String minAmount, String maxAmount, String startDate, String endDate);
+    PaymentSearchPage searchPayments(PaymentSearchCriteria criteria);
+
+    Document explainPaymentSearch(PaymentSearchCriteria criteria);
 
     PaymentDto createPaymentInstallment(String paymentId, Integer totalInstallments, String paymentPlan);
 
+    List<PaymentDto> getPaymentInstallments(String paymentId);
+
     PaymentDto applyPaymentDiscount(String paymentId, String discountAmount, String discountReason);
 
     void sendPaymentReminder(String paymentId);
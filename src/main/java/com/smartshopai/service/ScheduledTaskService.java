@@ -8,7 +8,15 @@ public interface ScheduledTaskService {
 
     void cleanupExpiredFiles();
 
+    void sweepOrphanFiles();
+
     void generateDailyPaymentReports();
 
     void sendWeeklyAnnouncements();
+
+    void markOverduePayments();
+
+    void applyLateFees();
+
+    void rebuildPaymentRollups();
 }
@@ -1,29 +1,38 @@
 package com.smartshopai.service;
 
-import com.smartshopai.domain.entity.User;
-import com.smartshopai.repository.UserRepository;
+import com.smartshopai.security.SitePermissionResolver;
+import com.smartshopai.security.SitePermissionSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SiteSecurityService {
 
-    private final UserRepository userRepository;
+    private final SitePermissionResolver sitePermissionResolver;
+
+    public boolean isUserFromSameSite(String siteId) {
+        Optional<SitePermissionSnapshot> permissions = sitePermissionResolver.resolveCurrentUser();
+        boolean hasAccess = permissions.map(p -> p.belongsToSite(siteId)).orElse(false);
+        log.debug("Current user access to site {}: {}", siteId, hasAccess);
+        return hasAccess;
+    }
 
     public boolean isUserFromSameSite(String userId, String siteId) {
         try {
-            User user = userRepository.findById(userId)
+            SitePermissionSnapshot permissions = sitePermissionResolver.resolve(userId)
                     .orElse(null);
-            
-            if (user == null) {
+
+            if (permissions == null) {
                 log.warn("User not found: {}", userId);
                 return false;
             }
 
-            boolean hasAccess = siteId.equals(user.getSiteId());
+            boolean hasAccess = permissions.belongsToSite(siteId);
             log.debug("User {} access to site {}: {}", userId, siteId, hasAccess);
             return hasAccess;
         } catch (Exception e) {
@@ -34,16 +43,15 @@ public class SiteSecurityService {
 
     public boolean isSiteAdmin(String userId, String siteId) {
         try {
-            User user = userRepository.findById(userId)
+            SitePermissionSnapshot permissions = sitePermissionResolver.resolve(userId)
                     .orElse(null);
-            
-            if (user == null) {
+
+            if (permissions == null) {
                 return false;
             }
 
-            boolean isSiteAdmin = siteId.equals(user.getSiteId()) && 
-                                user.getSiteRole() == User.SiteRole.SITE_ADMIN;
-            
+            boolean isSiteAdmin = permissions.isSiteAdminOf(siteId);
+
             log.debug("User {} is site admin for site {}: {}", userId, siteId, isSiteAdmin);
             return isSiteAdmin;
         } catch (Exception e) {
@@ -54,14 +62,14 @@ public class SiteSecurityService {
 
     public boolean isSuperAdmin(String userId) {
         try {
-            User user = userRepository.findById(userId)
+            SitePermissionSnapshot permissions = sitePermissionResolver.resolve(userId)
                     .orElse(null);
-            
-            if (user == null) {
+
+            if (permissions == null) {
                 return false;
             }
 
-            boolean isSuperAdmin = user.getRoles().contains(User.Role.SUPER_ADMIN);
+            boolean isSuperAdmin = permissions.isSuperAdmin();
             log.debug("User {} is super admin: {}", userId, isSuperAdmin);
             return isSuperAdmin;
         } catch (Exception e) {
@@ -72,18 +80,18 @@ public class SiteSecurityService {
 
     public boolean canAccessSiteData(String userId, String siteId) {
         try {
-            User user = userRepository.findById(userId)
+            SitePermissionSnapshot permissions = sitePermissionResolver.resolve(userId)
                     .orElse(null);
-            
-            if (user == null) {
+
+            if (permissions == null) {
                 return false;
             }
 
-            if (user.getRoles().contains(User.Role.SUPER_ADMIN)) {
+            if (permissions.isSuperAdmin()) {
                 return true;
             }
 
-            boolean canAccess = siteId.equals(user.getSiteId());
+            boolean canAccess = permissions.belongsToSite(siteId);
             log.debug("User {} can access site {} data: {}", userId, siteId, canAccess);
             return canAccess;
         } catch (Exception e) {
@@ -94,20 +102,19 @@ public class SiteSecurityService {
 
     public boolean canManageSite(String userId, String siteId) {
         try {
-            User user = userRepository.findById(userId)
+            SitePermissionSnapshot permissions = sitePermissionResolver.resolve(userId)
                     .orElse(null);
-            
-            if (user == null) {
+
+            if (permissions == null) {
                 return false;
             }
 
-            if (user.getRoles().contains(User.Role.SUPER_ADMIN)) {
+            if (permissions.isSuperAdmin()) {
                 return true;
             }
 
-            boolean canManage = siteId.equals(user.getSiteId()) && 
-                              user.getSiteRole() == User.SiteRole.SITE_ADMIN;
-            
+            boolean canManage = permissions.isSiteAdminOf(siteId);
+
             log.debug("User {} can manage site {}: {}", userId, siteId, canManage);
             return canManage;
         } catch (Exception e) {
@@ -118,14 +125,14 @@ public class SiteSecurityService {
 
     public boolean canCreateSite(String userId) {
         try {
-            User user = userRepository.findById(userId)
+            SitePermissionSnapshot permissions = sitePermissionResolver.resolve(userId)
                     .orElse(null);
-            
-            if (user == null) {
+
+            if (permissions == null) {
                 return false;
             }
 
-            boolean canCreate = user.getRoles().contains(User.Role.SUPER_ADMIN);
+            boolean canCreate = permissions.isSuperAdmin();
             log.debug("User {} can create sites: {}", userId, canCreate);
             return canCreate;
         } catch (Exception e) {
@@ -136,14 +143,14 @@ public class SiteSecurityService {
 
     public boolean canDeleteSite(String userId, String siteId) {
         try {
-            User user = userRepository.findById(userId)
+            SitePermissionSnapshot permissions = sitePermissionResolver.resolve(userId)
                     .orElse(null);
-            
-            if (user == null) {
+
+            if (permissions == null) {
                 return false;
             }
 
-            boolean canDelete = user.getRoles().contains(User.Role.SUPER_ADMIN);
+            boolean canDelete = permissions.isSuperAdmin();
             log.debug("User {} can delete site {}: {}", userId, siteId, canDelete);
             return canDelete;
         } catch (Exception e) {
@@ -154,20 +161,19 @@ public class SiteSecurityService {
 
     public boolean canViewSiteStatistics(String userId, String siteId) {
         try {
-            User user = userRepository.findById(userId)
+            SitePermissionSnapshot permissions = sitePermissionResolver.resolve(userId)
                     .orElse(null);
-            
-            if (user == null) {
+
+            if (permissions == null) {
                 return false;
             }
 
-            if (user.getRoles().contains(User.Role.SUPER_ADMIN)) {
+            if (permissions.isSuperAdmin()) {
                 return true;
             }
 
-            boolean canView = siteId.equals(user.getSiteId()) && 
-                            user.getSiteRole() == User.SiteRole.SITE_ADMIN;
-            
+            boolean canView = permissions.isSiteAdminOf(siteId);
+
             log.debug("User {} can view site {} statistics: {}", userId, siteId, canView);
             return canView;
         } catch (Exception e) {
@@ -178,20 +184,19 @@ public class SiteSecurityService {
 
     public boolean canUpdateSiteSettings(String userId, String siteId) {
         try {
-            User user = userRepository.findById(userId)
+            SitePermissionSnapshot permissions = sitePermissionResolver.resolve(userId)
                     .orElse(null);
-            
-            if (user == null) {
+
+            if (permissions == null) {
                 return false;
             }
 
-            if (user.getRoles().contains(User.Role.SUPER_ADMIN)) {
+            if (permissions.isSuperAdmin()) {
                 return true;
             }
 
-            boolean canUpdate = siteId.equals(user.getSiteId()) && 
-                              user.getSiteRole() == User.SiteRole.SITE_ADMIN;
-            
+            boolean canUpdate = permissions.isSiteAdminOf(siteId);
+
             log.debug("User {} can update site {} settings: {}", userId, siteId, canUpdate);
             return canUpdate;
         } catch (Exception e) {
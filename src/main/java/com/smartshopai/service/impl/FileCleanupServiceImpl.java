@@ -0,0 +1,210 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.config.BusinessConfig;
+import com.smartshopai.domain.dto.FileCleanupReport;
+import com.smartshopai.domain.entity.FileEntity;
+import com.smartshopai.repository.FileRepository;
+import com.smartshopai.service.FileCleanupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileCleanupServiceImpl implements FileCleanupService {
+
+    private static final int BATCH_SIZE = 500;
+    // Blobs younger than this may belong to an upload whose metadata is still being written
+    private static final Duration ORPHAN_GRACE_PERIOD = Duration.ofHours(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final FileRepository fileRepository;
+    private final LocalFileStorage localFileStorage;
+    private final BusinessConfig businessConfig;
+    @Qualifier("fileProcessingExecutor")
+    private final Executor fileProcessingExecutor;
+
+    @Override
+    public FileCleanupReport cleanupExpiredFiles() {
+        Query expired = new Query(Criteria.where("expiresAt").lte(LocalDateTime.now()))
+                .cursorBatchSize(BATCH_SIZE);
+        expired.fields().include("id", "storedFileName");
+
+        FileCleanupReport report = FileCleanupReport.builder().build();
+        // The cursor keeps only one batch in memory no matter how many files expired
+        try (Stream<FileEntity> files = mongoTemplate.stream(expired, FileEntity.class)) {
+            Iterator<FileEntity> iterator = files.iterator();
+            List<FileEntity> batch = new ArrayList<>(BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == BATCH_SIZE || !iterator.hasNext()) {
+                    deleteExpiredBatch(batch, report);
+                    batch.clear();
+                }
+            }
+        }
+
+        log.info("Expired file cleanup: {} files, {} blobs, {} bytes reclaimed",
+                report.getDeletedFiles(), report.getDeletedBlobs(), report.getBytesReclaimed());
+        return report;
+    }
+
+    @Override
+    public FileCleanupReport sweepOrphanFiles() {
+        Instant cutoff = Instant.now().minus(ORPHAN_GRACE_PERIOD);
+        FileCleanupReport report = FileCleanupReport.builder().build();
+        if (!localFileStorage.tryBeginLayoutMaintenance()) {
+            log.info("Storage migration is running, skipping orphan file sweep");
+            return report;
+        }
+
+        try (Stream<Path> paths = localFileStorage.walk()) {
+            Iterator<Path> iterator = paths.filter(path -> isOlderThan(path, cutoff)).iterator();
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(localFileStorage.storedFileNameOf(iterator.next()));
+                if (batch.size() == BATCH_SIZE || !iterator.hasNext()) {
+                    sweepBatch(batch, report);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error walking upload directory: {}", e.getMessage(), e);
+        } finally {
+            localFileStorage.endLayoutMaintenance();
+        }
+
+        log.info("Orphan file sweep: {} files removed, {} bytes reclaimed",
+                report.getDeletedBlobs(), report.getBytesReclaimed());
+        return report;
+    }
+
+    // Metadata goes first so the reference count seen by the blob delete already excludes this batch
+    private void deleteExpiredBatch(List<FileEntity> batch, FileCleanupReport report) {
+        List<String> ids = batch.stream().map(FileEntity::getId).toList();
+        long removed = mongoTemplate.remove(new Query(Criteria.where("id").in(ids)), FileEntity.class).getDeletedCount();
+        report.setDeletedFiles(report.getDeletedFiles() + removed);
+
+        Set<String> storedNames = new LinkedHashSet<>();
+        batch.forEach(file -> storedNames.add(file.getStoredFileName()));
+        reclaimInParallel(storedNames, report);
+    }
+
+    private void sweepBatch(List<String> storedNames, FileCleanupReport report) {
+        Set<String> orphans = new LinkedHashSet<>();
+        List<String> blobs = new ArrayList<>();
+
+        for (String storedName : storedNames) {
+            if (LocalFileStorage.isStagedUpload(storedName)) {
+                // Abandoned temp file from an upload that never finished
+                orphans.add(storedName);
+            } else if (LocalFileStorage.blobNameOfDerivative(storedName) != null) {
+                if (!hasBlobWithBase(LocalFileStorage.blobNameOfDerivative(storedName))) {
+                    orphans.add(storedName);
+                }
+            } else {
+                blobs.add(storedName);
+            }
+        }
+
+        Set<String> referenced = referencedNames(blobs);
+        blobs.stream().filter(name -> !referenced.contains(name)).forEach(orphans::add);
+        reclaimInParallel(orphans, report);
+    }
+
+    private Set<String> referencedNames(Collection<String> storedNames) {
+        if (storedNames.isEmpty()) {
+            return Set.of();
+        }
+        Query query = new Query(Criteria.where("storedFileName").in(storedNames));
+        query.fields().include("storedFileName");
+        Set<String> referenced = new HashSet<>();
+        mongoTemplate.find(query, FileEntity.class).forEach(file -> referenced.add(file.getStoredFileName()));
+        return referenced;
+    }
+
+    // Anchored prefix regex, so the stored_file_name index is used; stored names only contain [A-Za-z0-9/_.-]
+    private boolean hasBlobWithBase(String base) {
+        Query query = new Query(Criteria.where("storedFileName").regex("^" + base.replace(".", "\\.") + "(\\.[^/]*)?$"));
+        return mongoTemplate.exists(query, FileEntity.class);
+    }
+
+    private void reclaimInParallel(Collection<String> storedNames, FileCleanupReport report) {
+        Semaphore permits = new Semaphore(Math.max(1, businessConfig.getFile().getUploadConcurrency()));
+        AtomicLong blobs = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        List<CompletableFuture<Void>> deletions = new ArrayList<>(storedNames.size());
+
+        for (String storedName : storedNames) {
+            permits.acquireUninterruptibly();
+            Runnable deletion = () -> {
+                try {
+                    long reclaimed = LocalFileStorage.isStagedUpload(storedName)
+                            || LocalFileStorage.blobNameOfDerivative(storedName) != null
+                            ? deleteLoose(storedName)
+                            : localFileStorage.reclaimIfUnreferenced(storedName, fileRepository::countByStoredFileName);
+                    if (reclaimed >= 0) {
+                        blobs.incrementAndGet();
+                        bytes.addAndGet(reclaimed);
+                    }
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                    log.warn("Could not delete stored file {}: {}", storedName, e.getMessage());
+                } finally {
+                    permits.release();
+                }
+            };
+
+            try {
+                deletions.add(CompletableFuture.runAsync(deletion, fileProcessingExecutor));
+            } catch (RejectedExecutionException e) {
+                deletion.run();
+            }
+        }
+
+        CompletableFuture.allOf(deletions.toArray(CompletableFuture[]::new)).join();
+        report.setDeletedBlobs(report.getDeletedBlobs() + blobs.get());
+        report.setFailedBlobs(report.getFailedBlobs() + failures.get());
+        report.setBytesReclaimed(report.getBytesReclaimed() + bytes.get());
+    }
+
+    private long deleteLoose(String storedName) throws IOException {
+        Path path = localFileStorage.resolve(storedName);
+        long size = Files.exists(path) ? Files.size(path) : 0L;
+        return Files.deleteIfExists(path) ? size : -1L;
+    }
+
+    private boolean isOlderThan(Path path, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
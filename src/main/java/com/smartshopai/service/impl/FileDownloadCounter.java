@@ -0,0 +1,156 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.domain.entity.FileAccessLog;
+import com.smartshopai.domain.entity.FileEntity;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FileDownloadCounter {
+
+    private static final int MAX_BUFFERED_LOGS = 50_000;
+    private static final int FLUSH_BATCH_SIZE = 1_000;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ConcurrentHashMap<String, PendingDownloads> pending = new ConcurrentHashMap<>();
+    private final Queue<FileAccessLog> accessLogs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedLogs = new AtomicInteger();
+
+    public void recordDownload(FileEntity file, String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        // compute() keeps the increment and the flush's removal of the same entry from interleaving
+        pending.compute(file.getId(), (id, downloads) -> {
+            PendingDownloads target = downloads != null ? downloads : new PendingDownloads();
+            target.record(now);
+            return target;
+        });
+
+        // Access history is best effort; under a flood the oldest unflushed entries win
+        if (bufferedLogs.incrementAndGet() <= MAX_BUFFERED_LOGS) {
+            accessLogs.add(FileAccessLog.builder()
+                    .fileId(file.getId())
+                    .userId(userId)
+                    .siteId(file.getSiteId())
+                    .accessedAt(now)
+                    .build());
+        } else {
+            bufferedLogs.decrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.file.download-counter.flush-millis:10000}")
+    public void flush() {
+        try {
+            flushCounters();
+            flushAccessLogs();
+        } catch (Exception e) {
+            log.error("Error flushing download counters: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flushCounters() {
+        Map<String, PendingDownloads> drained = new HashMap<>();
+        for (String fileId : pending.keySet()) {
+            pending.computeIfPresent(fileId, (id, downloads) -> {
+                drained.put(id, downloads);
+                return null;
+            });
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        List<String> fileIds = new ArrayList<>(drained.keySet());
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FileEntity.class);
+        fileIds.forEach(fileId -> updates.updateOne(
+                new Query(Criteria.where("id").is(fileId)),
+                new Update()
+                        .inc("downloadCount", drained.get(fileId).count.sum())
+                        .max("lastDownloaded", drained.get(fileId).lastDownloaded)));
+        try {
+            updates.execute();
+        } catch (BulkOperationException e) {
+            // Unordered writes: the ones that did not fail are applied, so only the failed files go back to the buffer
+            e.getErrors().forEach(error -> {
+                String fileId = fileIds.get(error.getIndex());
+                restore(fileId, drained.get(fileId));
+            });
+            throw e;
+        } catch (RuntimeException e) {
+            drained.forEach(this::restore);
+            throw e;
+        }
+        log.debug("Flushed download counters for {} files", drained.size());
+    }
+
+    // Merged into whatever was recorded since the drain, so the counts are retried at the next flush
+    private void restore(String fileId, PendingDownloads downloads) {
+        pending.merge(fileId, downloads, PendingDownloads::merge);
+    }
+
+    private void flushAccessLogs() {
+        List<FileAccessLog> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+        FileAccessLog entry;
+        while ((entry = accessLogs.poll()) != null) {
+            bufferedLogs.decrementAndGet();
+            batch.add(entry);
+            if (batch.size() == FLUSH_BATCH_SIZE) {
+                mongoTemplate.insert(batch, FileAccessLog.class);
+                batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, FileAccessLog.class);
+        }
+    }
+
+    private static final class PendingDownloads {
+        private final LongAdder count = new LongAdder();
+        private LocalDateTime lastDownloaded;
+
+        // Only called inside ConcurrentHashMap.compute, which serialises updates per file
+        private void record(LocalDateTime at) {
+            count.increment();
+            if (lastDownloaded == null || at.isAfter(lastDownloaded)) {
+                lastDownloaded = at;
+            }
+        }
+
+        // Only called inside ConcurrentHashMap.merge
+        private PendingDownloads merge(PendingDownloads other) {
+            count.add(other.count.sum());
+            if (lastDownloaded == null || (other.lastDownloaded != null && other.lastDownloaded.isAfter(lastDownloaded))) {
+                lastDownloaded = other.lastDownloaded;
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.smartshopai.service.impl;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns file names into edge n-grams ("dekont" -> "de", "dek", ... "dekont") so that prefix search
+ * becomes an exact match on an indexed multikey field instead of an unanchored regex.
+ */
+final class FileNameTokenizer {
+
+    static final int MIN_PREFIX = 2;
+    static final int MAX_PREFIX = 20;
+    private static final int MAX_TOKENS = 200;
+
+    private FileNameTokenizer() {
+    }
+
+    static List<String> indexTokens(String fileName) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : words(fileName)) {
+            for (int length = MIN_PREFIX; length <= Math.min(word.length(), MAX_PREFIX); length++) {
+                tokens.add(word.substring(0, length));
+                if (tokens.size() == MAX_TOKENS) {
+                    return new ArrayList<>(tokens);
+                }
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    // Each query word must match the prefix of some word in the name
+    static List<String> queryTokens(String query) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : words(query)) {
+            if (word.length() >= MIN_PREFIX) {
+                tokens.add(word.substring(0, Math.min(word.length(), MAX_PREFIX)));
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        // Fold Turkish letters and accents so "Dekont_Şubat" matches "subat"
+        String folded = Normalizer.normalize(text.replace('ı', 'i').replace('İ', 'I'), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> words = new ArrayList<>();
+        for (String word : folded.split("[^a-z0-9]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
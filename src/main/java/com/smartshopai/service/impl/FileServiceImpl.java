@@ -1,23 +1,54 @@
 package com.smartshopai.service.impl;
 
+import com.smartshopai.config.BusinessConfig;
+import com.smartshopai.domain.dto.FileDownload;
 import com.smartshopai.domain.dto.FileUploadResponse;
+import com.smartshopai.domain.dto.MultiFileUploadResponse;
 import com.smartshopai.domain.entity.FileEntity;
+import com.smartshopai.domain.entity.User;
 import com.smartshopai.service.FileService;
 import com.smartshopai.exception.ResourceNotFoundException;
 import com.smartshopai.repository.FileRepository;
+import com.smartshopai.security.SitePermissionResolver;
+import jakarta.validation.ConstraintViolationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,70 +58,203 @@ import java.util.stream.Collectors;
 public class FileServiceImpl implements FileService {
 
     private final FileRepository fileRepository;
-    
-    private static final String UPLOAD_DIR = "uploads/";
+    private final LocalFileStorage localFileStorage;
+    private final ImageDerivativeGenerator imageDerivativeGenerator;
+    private final FileDownloadCounter fileDownloadCounter;
+    private final SitePermissionResolver sitePermissionResolver;
+    private final MongoTemplate mongoTemplate;
+    private final BusinessConfig businessConfig;
+    @Qualifier("fileProcessingExecutor")
+    private final Executor fileProcessingExecutor;
 
     @Override
     public FileUploadResponse uploadFile(MultipartFile file, String category) {
         log.info("Uploading file: {} with category: {}", file.getOriginalFilename(), category);
 
+        PreparedUpload upload = prepareUpload(file, category, currentUser());
+
+        FileEntity savedFile;
         try {
-            String originalFileName = file.getOriginalFilename();
-            String fileExtension = getFileExtension(originalFileName);
-            String storedFileName = UUID.randomUUID().toString() + fileExtension;
-            
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            Path filePath = uploadPath.resolve(storedFileName);
-            Files.copy(file.getInputStream(), filePath);
-            
-            FileEntity fileEntity = FileEntity.builder()
-                    .originalFileName(originalFileName)
-                    .storedFileName(storedFileName)
-                    .fileUrl("/files/" + storedFileName) // TODO: Replace with cloud storage URL when configured
-                    .fileType(fileExtension)
-                    .fileSize(file.getSize())
-                    .category(category)
-                    .mimeType(file.getContentType())
-                    .uploadedAt(LocalDateTime.now())
-                    .build();
-            
-            FileEntity savedFile = fileRepository.save(fileEntity);
-            log.info("File uploaded successfully with ID: {}", savedFile.getId());
-            
-            return mapToFileUploadResponse(savedFile);
-            
-        } catch (IOException e) {
-            log.error("Error uploading file: {}", file.getOriginalFilename(), e);
-            throw new RuntimeException("Failed to upload file: " + file.getOriginalFilename(), e);
+            savedFile = fileRepository.insert(upload.entity());
+        } catch (RuntimeException e) {
+            localFileStorage.discard(upload.blob());
+            throw e;
         }
+
+        commitBlob(upload);
+        imageDerivativeGenerator.scheduleFor(savedFile);
+        log.info("File uploaded successfully with ID: {}", savedFile.getId());
+        return mapToFileUploadResponse(savedFile);
     }
 
     @Override
-    public List<FileUploadResponse> uploadMultipleFiles(List<MultipartFile> files, String category) {
+    public MultiFileUploadResponse uploadMultipleFiles(List<MultipartFile> files, String category) {
         log.info("Uploading {} files with category: {}", files.size(), category);
-        
-        return files.stream()
-                .map(file -> uploadFile(file, category))
-                .collect(Collectors.toList());
+        requireUserCategory(category);
+
+        // Security context is not propagated to executor threads, so the uploader is resolved here
+        Optional<User> uploader = currentUser();
+        Semaphore permits = new Semaphore(Math.max(1, businessConfig.getFile().getUploadConcurrency()));
+        List<CompletableFuture<PreparedUpload>> staging = new ArrayList<>(files.size());
+
+        for (MultipartFile file : files) {
+            permits.acquireUninterruptibly();
+            CompletableFuture<PreparedUpload> task;
+            try {
+                task = CompletableFuture.supplyAsync(() -> prepareUpload(file, category, uploader), fileProcessingExecutor);
+            } catch (RejectedExecutionException e) {
+                // Executor is saturated; stage on the request thread rather than failing the file
+                task = CompletableFuture.completedFuture(null)
+                        .thenApply(ignored -> prepareUpload(file, category, uploader));
+            }
+            staging.add(task.whenComplete((result, error) -> permits.release()));
+        }
+
+        MultiFileUploadResponse response = MultiFileUploadResponse.builder().build();
+        List<PreparedUpload> prepared = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                prepared.add(staging.get(i).join());
+            } catch (CompletionException e) {
+                response.getFailed().add(failure(files.get(i).getOriginalFilename(), e.getCause()));
+            }
+        }
+
+        for (PreparedUpload upload : insertAll(prepared, response)) {
+            try {
+                commitBlob(upload);
+                imageDerivativeGenerator.scheduleFor(upload.entity());
+                response.getUploaded().add(mapToFileUploadResponse(upload.entity()));
+            } catch (RuntimeException e) {
+                response.getFailed().add(failure(upload.entity().getOriginalFileName(), e));
+            }
+        }
+
+        log.info("Uploaded {} of {} files", response.getUploaded().size(), files.size());
+        return response;
+    }
+
+    // One unordered bulk insert for the whole request; per-document write errors are reported per file
+    private List<PreparedUpload> insertAll(List<PreparedUpload> prepared, MultiFileUploadResponse response) {
+        if (prepared.isEmpty()) {
+            return prepared;
+        }
+
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FileEntity.class)
+                    .insert(prepared.stream().map(PreparedUpload::entity).toList())
+                    .execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> {
+                failedIndexes.add(error.getIndex());
+                PreparedUpload upload = prepared.get(error.getIndex());
+                localFileStorage.discard(upload.blob());
+                response.getFailed().add(failure(upload.entity().getOriginalFileName(), new IllegalStateException(error.getMessage())));
+            });
+        } catch (ConstraintViolationException e) {
+            // Validation rejected the batch before it was sent; fall back to one insert per file
+            List<PreparedUpload> inserted = new ArrayList<>();
+            for (PreparedUpload upload : prepared) {
+                try {
+                    fileRepository.insert(upload.entity());
+                    inserted.add(upload);
+                } catch (RuntimeException single) {
+                    localFileStorage.discard(upload.blob());
+                    response.getFailed().add(failure(upload.entity().getOriginalFileName(), single));
+                }
+            }
+            return inserted;
+        } catch (RuntimeException e) {
+            // Which documents were written is unknown, so all of them are rolled back along with the staged blobs
+            try {
+                mongoTemplate.remove(new Query(Criteria.where("id").in(
+                        prepared.stream().map(upload -> upload.entity().getId()).toList())), FileEntity.class);
+            } catch (RuntimeException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            prepared.forEach(upload -> localFileStorage.discard(upload.blob()));
+            throw e;
+        }
+
+        List<PreparedUpload> inserted = new ArrayList<>(prepared.size());
+        for (int i = 0; i < prepared.size(); i++) {
+            if (!failedIndexes.contains(i)) {
+                inserted.add(prepared.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    // Multipart parts are spooled to disk by the container; copy and hash them in a single pass
+    private PreparedUpload prepareUpload(MultipartFile file, String category, Optional<User> uploader) {
+        requireUserCategory(category);
+        String originalFileName = file.getOriginalFilename();
+        String fileExtension = getFileExtension(originalFileName);
+
+        LocalFileStorage.StagedBlob blob;
+        try (InputStream content = file.getInputStream()) {
+            blob = localFileStorage.stage(content, fileExtension, uploader.map(User::getSiteId).orElse(null));
+        } catch (IOException e) {
+            log.error("Error uploading file: {}", originalFileName, e);
+            throw new RuntimeException("Failed to upload file: " + originalFileName, e);
+        }
+
+        String fileId = new ObjectId().toHexString();
+        FileEntity fileEntity = FileEntity.builder()
+                .id(fileId)
+                .originalFileName(originalFileName)
+                .searchTokens(FileNameTokenizer.indexTokens(originalFileName))
+                .storedFileName(blob.storedFileName())
+                .fileUrl("/files/" + fileId + "/content")
+                .fileType(fileExtension)
+                .fileSize(blob.size())
+                .fileHash(blob.sha256())
+                .category(category)
+                .mimeType(file.getContentType())
+                .storageProvider(FileEntity.StorageProvider.LOCAL)
+                .uploadedBy(uploader.map(User::getId).orElse(null))
+                .uploadedByName(uploader.map(this::displayName).orElse(null))
+                .siteId(uploader.map(User::getSiteId).orElse(null))
+                .uploadedAt(LocalDateTime.now())
+                .build();
+
+        return new PreparedUpload(fileEntity, blob);
+    }
+
+    // Metadata is already saved, so a concurrent delete of the same content keeps the blob
+    private void commitBlob(PreparedUpload upload) {
+        try {
+            localFileStorage.commit(upload.blob());
+        } catch (IOException e) {
+            log.error("Error storing file: {}", upload.entity().getOriginalFileName(), e);
+            fileRepository.deleteById(upload.entity().getId());
+            localFileStorage.discard(upload.blob());
+            throw new RuntimeException("Failed to upload file: " + upload.entity().getOriginalFileName(), e);
+        }
+    }
+
+    private MultiFileUploadResponse.FileUploadFailure failure(String originalFileName, Throwable error) {
+        log.warn("Upload failed for {}: {}", originalFileName, error.getMessage());
+        return MultiFileUploadResponse.FileUploadFailure.builder()
+                .originalFileName(originalFileName)
+                .error(error.getMessage())
+                .build();
     }
 
     @Override
     public void deleteFile(String fileId) {
         log.info("Deleting file: {}", fileId);
         
-        FileEntity fileEntity = fileRepository.findById(fileId)
-                .orElseThrow(() -> new ResourceNotFoundException("File not found with ID: " + fileId));
+        FileEntity fileEntity = findVisible(fileId);
         
+        fileRepository.deleteById(fileId);
+
         try {
-            Path filePath = Paths.get(UPLOAD_DIR, fileEntity.getStoredFileName());
-            Files.deleteIfExists(filePath);
-            
-            fileRepository.deleteById(fileId);
-            log.info("File deleted successfully: {}", fileId);
+            // Blobs are shared by identical uploads; only the last reference removes the content
+            boolean blobDeleted = localFileStorage.deleteIfUnreferenced(
+                    fileEntity.getStoredFileName(), fileRepository::countByStoredFileName);
+            log.info("File deleted successfully: {} (blob removed: {})", fileId, blobDeleted);
             
         } catch (IOException e) {
             log.error("Error deleting file from storage: {}", fileId, e);
@@ -103,12 +267,63 @@ public class FileServiceImpl implements FileService {
     public FileUploadResponse getFileInfo(String fileId) {
         log.debug("Getting file info for ID: {}", fileId);
         
-        FileEntity fileEntity = fileRepository.findById(fileId)
-                .orElseThrow(() -> new ResourceNotFoundException("File not found with ID: " + fileId));
+        FileEntity fileEntity = findVisible(fileId);
         
         return mapToFileUploadResponse(fileEntity);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public FileDownload loadFileContent(String fileId) {
+        log.debug("Loading file content for ID: {}", fileId);
+
+        FileEntity fileEntity = findVisible(fileId);
+
+        FileDownload download = download(fileEntity, fileEntity.getStoredFileName(), fileEntity.getOriginalFileName(),
+                fileEntity.getMimeType(), fileEntity.getFileHash());
+        fileDownloadCounter.recordDownload(fileEntity, currentUser().map(User::getId).orElse(null));
+        return download;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FileDownload loadFileDerivative(String fileId, String derivative) {
+        log.debug("Loading {} for file ID: {}", derivative, fileId);
+
+        FileEntity fileEntity = findVisible(fileId);
+
+        String storedFileName = LocalFileStorage.derivativeName(fileEntity.getStoredFileName(), derivative);
+        String entityTag = fileEntity.getFileHash() != null ? fileEntity.getFileHash() + "-" + derivative : null;
+        return download(fileEntity, storedFileName, derivative + "-" + fileEntity.getOriginalFileName(),
+                MediaType.IMAGE_JPEG_VALUE, entityTag);
+    }
+
+    private FileDownload download(FileEntity fileEntity, String storedFileName, String fileName, String mimeType, String contentTag) {
+        Path filePath = localFileStorage.resolve(storedFileName);
+        if (!Files.isReadable(filePath)) {
+            throw new ResourceNotFoundException("File content not found for ID: " + fileEntity.getId());
+        }
+
+        try {
+            Instant lastModified = Files.getLastModifiedTime(filePath).toInstant();
+            // Content hash is a strong validator; older uploads without one fall back to id + size + mtime
+            String entityTag = contentTag != null
+                    ? contentTag
+                    : fileEntity.getId() + "-" + Files.size(filePath) + "-" + lastModified.toEpochMilli();
+
+            return FileDownload.builder()
+                    .resource(new FileSystemResource(filePath))
+                    .originalFileName(fileName)
+                    .mimeType(mimeType)
+                    .entityTag("\"" + entityTag + "\"")
+                    .lastModified(lastModified)
+                    .build();
+        } catch (IOException e) {
+            log.error("Error reading file from storage: {}", fileEntity.getId(), e);
+            throw new RuntimeException("Failed to read file from storage: " + fileEntity.getId(), e);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<FileUploadResponse> getFilesByCategory(String category) {
@@ -116,6 +331,7 @@ public class FileServiceImpl implements FileService {
         
         List<FileEntity> files = fileRepository.findByCategory(category);
         return files.stream()
+                .filter(this::isVisible)
                 .map(this::mapToFileUploadResponse)
                 .collect(Collectors.toList());
     }
@@ -127,17 +343,86 @@ public class FileServiceImpl implements FileService {
         
         List<FileEntity> files = fileRepository.findByUploadedBy(userId);
         return files.stream()
+                .filter(this::isVisible)
                 .map(this::mapToFileUploadResponse)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<FileUploadResponse> searchFiles(String query, String category, String siteId, Pageable pageable) {
+        log.debug("Searching files for '{}' in category {} and site {}", query, category, siteId);
+
+        List<String> tokens = FileNameTokenizer.queryTokens(query);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least " + FileNameTokenizer.MIN_PREFIX + " letters or digits");
+        }
+
+        // Users outside SUPER_ADMIN only ever search their own site
+        String effectiveSiteId = sitePermissionResolver.scopeSiteId(siteId);
+
+        Criteria criteria = Criteria.where("searchTokens").all(tokens);
+        if (effectiveSiteId != null) {
+            criteria = criteria.and("siteId").is(effectiveSiteId);
+        }
+        if (category != null) {
+            criteria = criteria.and("category").is(category);
+        }
+        if (!canSeePaymentReports(effectiveSiteId)) {
+            if (FileEntity.PAYMENT_REPORT_CATEGORY.equals(category)) {
+                return Page.empty(pageable);
+            }
+            if (category == null) {
+                criteria = criteria.and("category").ne(FileEntity.PAYMENT_REPORT_CATEGORY);
+            }
+        }
+
+        Query searchQuery = new Query(criteria).with(pageable);
+        if (pageable.getSort().isUnsorted()) {
+            searchQuery.with(Sort.by(Sort.Direction.DESC, "uploadedAt"));
+        }
+        List<FileEntity> files = mongoTemplate.find(searchQuery, FileEntity.class);
+
+        // The count query only runs when the page alone cannot determine the total
+        return PageableExecutionUtils.getPage(
+                files.stream().map(this::mapToFileUploadResponse).toList(),
+                pageable,
+                () -> mongoTemplate.count(Query.of(searchQuery).limit(-1).skip(-1), FileEntity.class));
+    }
+
+    @Override
+    public int reindexSearchTokens() {
+        log.info("Backfilling file search tokens");
+        int updated = 0;
+
+        while (true) {
+            Query missing = new Query(Criteria.where("searchTokens").exists(false)).limit(500);
+            missing.fields().include("id", "originalFileName");
+            List<FileEntity> batch = mongoTemplate.find(missing, FileEntity.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FileEntity.class);
+            batch.forEach(file -> updates.updateOne(
+                    new Query(Criteria.where("id").is(file.getId())),
+                    new Update().set("searchTokens", FileNameTokenizer.indexTokens(file.getOriginalFileName()))));
+            updates.execute();
+            updated += batch.size();
+        }
+
+        log.info("Backfilled search tokens for {} files", updated);
+        return updated;
+    }
+
     @Override
     public FileUploadResponse updateFileMetadata(String fileId, String description, String category) {
         log.info("Updating metadata for file: {}", fileId);
         
-        FileEntity fileEntity = fileRepository.findById(fileId)
-                .orElseThrow(() -> new ResourceNotFoundException("File not found with ID: " + fileId));
-        
+        FileEntity fileEntity = findVisible(fileId);
+        requireUserCategory(fileEntity.getCategory());
+        requireUserCategory(category);
+
         fileEntity.setDescription(description);
         fileEntity.setCategory(category);
         fileEntity.setUpdatedAt(LocalDateTime.now());
@@ -148,6 +433,46 @@ public class FileServiceImpl implements FileService {
         return mapToFileUploadResponse(updatedFile);
     }
 
+    // Payment reports are only written by the export job; moving files in or out would change who can read them
+    private void requireUserCategory(String category) {
+        if (FileEntity.PAYMENT_REPORT_CATEGORY.equals(category)) {
+            throw new IllegalArgumentException("Category " + category + " is reserved for generated payment reports");
+        }
+    }
+
+    // Files the caller may not see are reported as missing rather than forbidden, so their ids are not confirmed
+    private FileEntity findVisible(String fileId) {
+        return fileRepository.findById(fileId)
+                .filter(this::isVisible)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found with ID: " + fileId));
+    }
+
+    private boolean isVisible(FileEntity file) {
+        return !FileEntity.PAYMENT_REPORT_CATEGORY.equals(file.getCategory()) || canSeePaymentReports(file.getSiteId());
+    }
+
+    // Payment reports follow the ADMIN-only /payments/export: super admins, or admins of the report's site
+    private boolean canSeePaymentReports(String siteId) {
+        return sitePermissionResolver.resolveCurrentUser()
+                .map(permissions -> permissions.isAdminOf(siteId))
+                .orElse(false);
+    }
+
+    private Optional<User> currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return Optional.of(user);
+        }
+        return Optional.empty();
+    }
+
+    private String displayName(User user) {
+        if (user.getFirstName() == null) {
+            return user.getUsername();
+        }
+        return user.getLastName() != null ? user.getFirstName() + " " + user.getLastName() : user.getFirstName();
+    }
+
     private String getFileExtension(String filename) {
         if (filename == null || filename.lastIndexOf(".") == -1) {
             return "";
@@ -155,6 +480,9 @@ public class FileServiceImpl implements FileService {
         return filename.substring(filename.lastIndexOf("."));
     }
 
+    private record PreparedUpload(FileEntity entity, LocalFileStorage.StagedBlob blob) {
+    }
+
     private FileUploadResponse mapToFileUploadResponse(FileEntity fileEntity) {
         return FileUploadResponse.builder()
                 .id(fileEntity.getId())
@@ -168,6 +496,8 @@ public class FileServiceImpl implements FileService {
                 .uploadedBy(fileEntity.getUploadedBy())
                 .uploadedAt(fileEntity.getUploadedAt())
                 .mimeType(fileEntity.getMimeType())
+                .thumbnailUrl(fileEntity.getThumbnailUrl())
+                .previewUrl(fileEntity.getPreviewUrl())
                 .build();
     }
 }
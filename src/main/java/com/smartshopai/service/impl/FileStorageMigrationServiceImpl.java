@@ -0,0 +1,156 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.domain.dto.StorageMigrationStatus;
+import com.smartshopai.domain.entity.FileEntity;
+import com.smartshopai.exception.ServiceUnavailableException;
+import com.smartshopai.service.FileStorageMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileStorageMigrationServiceImpl implements FileStorageMigrationService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final LocalFileStorage localFileStorage;
+    @Qualifier("taskExecutor")
+    private final Executor taskExecutor;
+
+    private final AtomicReference<StorageMigrationStatus> status =
+            new AtomicReference<>(StorageMigrationStatus.builder().build());
+
+    @Override
+    public StorageMigrationStatus startMigration() {
+        StorageMigrationStatus current = status.get();
+        StorageMigrationStatus started = StorageMigrationStatus.builder()
+                .running(true)
+                .startedAt(LocalDateTime.now())
+                .build();
+
+        if (current.isRunning() || !status.compareAndSet(current, started)) {
+            log.info("Storage migration is already running");
+            return status.get();
+        }
+        if (!localFileStorage.tryBeginLayoutMaintenance()) {
+            status.set(current);
+            throw new ServiceUnavailableException("Orphan file sweep is running, please retry later", 300);
+        }
+
+        try {
+            taskExecutor.execute(this::migrate);
+        } catch (RejectedExecutionException e) {
+            localFileStorage.endLayoutMaintenance();
+            status.set(current);
+            throw new ServiceUnavailableException("Task queue is full, please retry later", 30, e);
+        }
+        return started;
+    }
+
+    @Override
+    public StorageMigrationStatus getStatus() {
+        return status.get();
+    }
+
+    private void migrate() {
+        log.info("Starting storage layout migration");
+        String lastId = null;
+
+        try {
+            while (true) {
+                List<FileEntity> batch = nextBatch(lastId);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+                migrateBatch(batch);
+            }
+            log.info("Storage layout migration completed: {}", status.get());
+        } catch (Exception e) {
+            log.error("Storage layout migration stopped: {}", e.getMessage(), e);
+        } finally {
+            status.updateAndGet(s -> s.toBuilder().running(false).finishedAt(LocalDateTime.now()).build());
+            localFileStorage.endLayoutMaintenance();
+        }
+    }
+
+    // Flat names contain no '/', sharded ones always do; paging by _id skips files that failed to move
+    private List<FileEntity> nextBatch(String lastId) {
+        Criteria criteria = Criteria.where("storedFileName").regex("^[^/]+$");
+        if (lastId != null) {
+            criteria = criteria.and("id").gt(lastId);
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(BATCH_SIZE);
+        query.fields().include("id", "storedFileName", "fileHash", "siteId");
+        return mongoTemplate.find(query, FileEntity.class);
+    }
+
+    private void migrateBatch(List<FileEntity> batch) {
+        // Deduplicated uploads share a blob, so every reference to a name moves together
+        Map<String, FileEntity> byStoredName = new LinkedHashMap<>();
+        batch.forEach(file -> byStoredName.putIfAbsent(file.getStoredFileName(), file));
+
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FileEntity.class);
+        List<String> relocated = new ArrayList<>();
+        long failed = 0;
+
+        for (FileEntity file : byStoredName.values()) {
+            String from = file.getStoredFileName();
+            try {
+                String hash = file.getFileHash() != null ? file.getFileHash() : localFileStorage.hash(from);
+                String to = localFileStorage.shardedName(from, hash, file.getSiteId());
+
+                localFileStorage.relink(from, to);
+                updates.updateMulti(new Query(Criteria.where("storedFileName").is(from)), new Update()
+                        .set("storedFileName", to)
+                        .set("fileHash", hash));
+                relocated.add(from);
+            } catch (Exception e) {
+                failed++;
+                log.warn("Could not relocate stored file {}: {}", from, e.getMessage());
+            }
+        }
+
+        if (!relocated.isEmpty()) {
+            updates.execute();
+        }
+
+        // Old names are dropped only after the metadata points at the new ones
+        for (String from : relocated) {
+            try {
+                localFileStorage.deleteBlobFiles(from);
+            } catch (Exception e) {
+                log.warn("Could not remove old copy of {}: {}", from, e.getMessage());
+            }
+        }
+
+        long migrated = relocated.size();
+        long failures = failed;
+        status.updateAndGet(s -> s.toBuilder()
+                .migratedFiles(s.getMigratedFiles() + migrated)
+                .failedFiles(s.getFailedFiles() + failures)
+                .build());
+    }
+}
@@ -0,0 +1,173 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.config.BusinessConfig;
+import com.smartshopai.domain.entity.FileEntity;
+import com.smartshopai.repository.FileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImageDerivativeGenerator {
+
+    private static final int THUMBNAIL_SIZE = 240;
+    private static final int PREVIEW_SIZE = 1280;
+
+    private final LocalFileStorage localFileStorage;
+    private final MongoTemplate mongoTemplate;
+    private final FileRepository fileRepository;
+    private final BusinessConfig businessConfig;
+    @Qualifier("fileProcessingExecutor")
+    private final Executor fileProcessingExecutor;
+
+    public void scheduleFor(FileEntity file) {
+        BusinessConfig.File config = businessConfig.getFile();
+        if (!isImage(file) || (!config.isThumbnailEnabled() && !config.isCompressionEnabled())) {
+            return;
+        }
+
+        try {
+            fileProcessingExecutor.execute(() -> generate(file));
+        } catch (RejectedExecutionException e) {
+            // Derivatives are an optimisation; the original stays downloadable
+            log.warn("File processing queue is full, skipping derivatives for {}", file.getId());
+        }
+    }
+
+    void generate(FileEntity file) {
+        BusinessConfig.File config = businessConfig.getFile();
+        try {
+            // Decode once, subsampled close to the preview size, and derive the thumbnail from that
+            BufferedImage image = decode(localFileStorage.resolve(file.getStoredFileName()), PREVIEW_SIZE);
+            if (image == null) {
+                log.debug("No ImageIO reader for file {}, skipping derivatives", file.getId());
+                return;
+            }
+
+            Update update = new Update();
+            if (config.isCompressionEnabled()) {
+                Path preview = write(file.getStoredFileName(), LocalFileStorage.PREVIEW, image, PREVIEW_SIZE, 0.8f);
+                if (preview == null) {
+                    log.debug("File {} was deleted while generating derivatives", file.getId());
+                    return;
+                }
+                update.set("previewUrl", "/files/" + file.getId() + "/preview")
+                        .set("compressionRatio", (double) Files.size(preview) / Math.max(1L, file.getFileSize()));
+            }
+            if (config.isThumbnailEnabled()) {
+                if (write(file.getStoredFileName(), LocalFileStorage.THUMBNAIL, image, THUMBNAIL_SIZE, 0.7f) == null) {
+                    log.debug("File {} was deleted while generating derivatives", file.getId());
+                    return;
+                }
+                update.set("thumbnailUrl", "/files/" + file.getId() + "/thumbnail");
+            }
+
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(file.getId())), update, FileEntity.class);
+            log.debug("Generated derivatives for file {}", file.getId());
+        } catch (Exception e) {
+            log.warn("Failed to generate derivatives for file {}: {}", file.getId(), e.getMessage());
+        }
+    }
+
+    private boolean isImage(FileEntity file) {
+        return file.getMimeType() != null && file.getMimeType().startsWith("image/");
+    }
+
+    private BufferedImage decode(Path source, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longestSide / (targetSize * 2));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Identical uploads share a blob, so an existing derivative is reused as-is.
+    // Encoding runs unlocked; only the final move is committed under the blob's lock. Returns null if the blob is gone
+    private Path write(String storedFileName, String derivative, BufferedImage image, int maxSize, float quality) throws IOException {
+        Path target = localFileStorage.resolve(LocalFileStorage.derivativeName(storedFileName, derivative));
+        if (Files.exists(target)) {
+            return target;
+        }
+
+        Path temp = Files.createTempFile(target.getParent(), "derivative-", ".part");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(scale(image, maxSize), null, null), param);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+
+        return localFileStorage.commitDerivative(storedFileName, derivative, temp, fileRepository::countByStoredFileName)
+                ? target
+                : null;
+    }
+
+    private BufferedImage scale(BufferedImage image, int maxSize) {
+        double factor = Math.min(1.0, (double) maxSize / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+
+        // JPEG has no alpha channel, so transparent areas are flattened onto white
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+}
@@ -0,0 +1,53 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.domain.entity.Payment;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class InstallmentSchedule {
+
+    static final int MIN_INSTALLMENTS = 2;
+    static final int MAX_INSTALLMENTS = 60;
+
+    private InstallmentSchedule() {
+    }
+
+    /**
+     * Splits {@code total} into {@code parts} shares that sum to exactly {@code total}.
+     * Every share is rounded down to the smallest unit (kuruş, or finer if the total has more decimals)
+     * and the leftover units go one each to the first installments.
+     */
+    static List<BigDecimal> split(BigDecimal total, int parts) {
+        int scale = Math.max(total.scale(), 2);
+        BigDecimal amount = total.setScale(scale, RoundingMode.UNNECESSARY);
+        BigDecimal unit = BigDecimal.ONE.movePointLeft(scale);
+
+        BigDecimal share = amount.divide(BigDecimal.valueOf(parts), scale, RoundingMode.DOWN);
+        int leftoverUnits = amount.subtract(share.multiply(BigDecimal.valueOf(parts))).divide(unit).intValueExact();
+
+        List<BigDecimal> shares = new ArrayList<>(parts);
+        for (int i = 0; i < parts; i++) {
+            shares.add(i < leftoverUnits ? share.add(unit) : share);
+        }
+        return shares;
+    }
+
+    // Offsets are taken from the first due date so month-end dates do not drift (31st, 30th, 28th...)
+    static LocalDate dueDate(LocalDate firstDueDate, Payment.PaymentPlan plan, int installmentIndex) {
+        return firstDueDate.plusMonths((long) monthsBetween(plan) * installmentIndex);
+    }
+
+    private static int monthsBetween(Payment.PaymentPlan plan) {
+        return switch (plan) {
+            case MONTHLY -> 1;
+            case QUARTERLY -> 3;
+            case SEMI_ANNUAL -> 6;
+            case ANNUAL -> 12;
+            case CUSTOM -> throw new IllegalArgumentException("CUSTOM plans cannot be generated automatically");
+        };
+    }
+}
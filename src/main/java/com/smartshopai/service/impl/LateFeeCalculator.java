@@ -0,0 +1,41 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.config.BusinessConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.Period;
+
+@Component
+@RequiredArgsConstructor
+public class LateFeeCalculator {
+
+    private final BusinessConfig businessConfig;
+
+    /**
+     * Late fee for {@code amount} due on {@code dueDate} as of {@code asOf}: the monthly rate per full month
+     * late plus the daily rate per remaining day, capped at the configured share of the amount.
+     * Nothing is charged until the payment is a full month late.
+     */
+    public BigDecimal calculate(BigDecimal amount, LocalDate dueDate, LocalDate asOf) {
+        if (amount == null || dueDate == null || !asOf.isAfter(dueDate)) {
+            return BigDecimal.ZERO;
+        }
+
+        Period late = Period.between(dueDate, asOf);
+        long monthsLate = late.toTotalMonths();
+        if (monthsLate <= 0) {
+            return BigDecimal.ZERO;
+        }
+
+        BusinessConfig.Payment rates = businessConfig.getPayment();
+        BigDecimal monthlyFee = amount.multiply(rates.getLateFeeRate()).multiply(BigDecimal.valueOf(monthsLate));
+        BigDecimal dailyFee = amount.multiply(rates.getDailyLateFeeRate()).multiply(BigDecimal.valueOf(late.getDays() % 30));
+        BigDecimal maxFee = amount.multiply(rates.getMaxLateFeePercentage());
+
+        return monthlyFee.add(dailyFee).min(maxFee).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,302 @@
+package com.smartshopai.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Component
+@Slf4j
+public class LocalFileStorage {
+
+    public static final String THUMBNAIL = "thumbnail";
+    public static final String PREVIEW = "preview";
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path root;
+    private final boolean deduplicate;
+    private final boolean shardBySite;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    // A flag rather than a lock, since the migration takes it on the request thread and releases it on the executor
+    private final AtomicBoolean layoutMaintenance = new AtomicBoolean();
+
+    public LocalFileStorage(@Value("${app.file.storage.local.upload-dir:uploads}") String uploadDir,
+                            @Value("${app.file.storage.local.deduplicate:true}") boolean deduplicate,
+                            @Value("${app.file.storage.local.shard-by-site:false}") boolean shardBySite) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.deduplicate = deduplicate;
+        this.shardBySite = shardBySite;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Copies the stream to a temp file once while hashing it; nothing is visible until commit()
+    public StagedBlob stage(InputStream content, String extension, String siteId) throws IOException {
+        try (InputStream source = content) {
+            return stage(source::transferTo, extension, siteId);
+        }
+    }
+
+    // Same as above for content that is generated rather than uploaded, e.g. reports
+    public StagedBlob stage(ContentWriter content, String extension, String siteId) throws IOException {
+        Files.createDirectories(root);
+        Path temp = Files.createTempFile(root, "upload-", ".part");
+        MessageDigest digest = sha256();
+
+        try {
+            try (OutputStream target = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)), digest)) {
+                content.writeTo(target);
+            }
+            long size = Files.size(temp);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            // Content-addressed names let identical uploads share one blob
+            String storedFileName = shardedName((deduplicate ? hash : UUID.randomUUID().toString())
+                    + extension.toLowerCase(Locale.ROOT), hash, siteId);
+            return new StagedBlob(temp, storedFileName, size, hash);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Moves a staged blob into place, or drops it when an identical blob is already stored.
+     * Call after the referencing metadata is saved so a concurrent delete always sees the new reference.
+     */
+    public void commit(StagedBlob blob) throws IOException {
+        withBlobLock(blob.storedFileName(), () -> {
+            Path target = resolve(blob.storedFileName());
+            if (Files.exists(target)) {
+                Files.delete(blob.tempFile());
+                log.debug("Reusing stored blob {}", blob.storedFileName());
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(blob.tempFile(), target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Two levels of hash-prefixed directories keep every directory at a few thousand entries at most,
+     * e.g. {@code 3f/a9/3fa9...c1.jpg}, optionally below {@code sites/<siteId>/}.
+     */
+    public String shardedName(String fileName, String sha256, String siteId) {
+        String prefix = shardBySite && siteId != null
+                ? "sites/" + siteId.replaceAll("[^A-Za-z0-9_-]", "_") + "/"
+                : "";
+        return prefix + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + fileName;
+    }
+
+    public static boolean isSharded(String storedFileName) {
+        return storedFileName.indexOf('/') >= 0;
+    }
+
+    public String hash(String storedFileName) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream source = new DigestInputStream(Files.newInputStream(resolve(storedFileName)), digest)) {
+            source.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Makes a blob and its derivatives reachable under a second name without a window where neither
+     * name works: hard link where the file system allows it, copy otherwise.
+     */
+    public void relink(String from, String to) throws IOException {
+        withBlobLock(from, () -> {
+            link(from, to);
+            link(derivativeName(from, THUMBNAIL), derivativeName(to, THUMBNAIL));
+            link(derivativeName(from, PREVIEW), derivativeName(to, PREVIEW));
+            return null;
+        });
+    }
+
+    /**
+     * The storage migration and the orphan sweep exclude each other: a relinked name keeps the old mtime and
+     * has no metadata until the migration's bulk update, so the sweep would take it for an old orphan.
+     */
+    public boolean tryBeginLayoutMaintenance() {
+        return layoutMaintenance.compareAndSet(false, true);
+    }
+
+    public void endLayoutMaintenance() {
+        layoutMaintenance.set(false);
+    }
+
+    public void deleteBlobFiles(String storedFileName) throws IOException {
+        withBlobLock(storedFileName, () -> {
+            Files.deleteIfExists(resolve(derivativeName(storedFileName, THUMBNAIL)));
+            Files.deleteIfExists(resolve(derivativeName(storedFileName, PREVIEW)));
+            Files.deleteIfExists(resolve(storedFileName));
+            return null;
+        });
+    }
+
+    private void link(String from, String to) throws IOException {
+        Path source = resolve(from);
+        Path target = resolve(to);
+        if (!Files.exists(source) || Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    public void discard(StagedBlob blob) {
+        try {
+            Files.deleteIfExists(blob.tempFile());
+        } catch (IOException e) {
+            log.warn("Could not remove staged upload {}: {}", blob.tempFile(), e.getMessage());
+        }
+    }
+
+    public static String derivativeName(String storedFileName, String derivative) {
+        int dot = storedFileName.lastIndexOf('.');
+        String base = dot > storedFileName.lastIndexOf('/') ? storedFileName.substring(0, dot) : storedFileName;
+        return base + "_" + derivative + ".jpg";
+    }
+
+    public Path resolve(String storedFileName) {
+        Path path = root.resolve(storedFileName).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid stored file name: " + storedFileName);
+        }
+        return path;
+    }
+
+    /**
+     * Moves an encoded derivative next to its blob under the blob's lock. Returns false and drops the encoded
+     * file when the blob lost its last reference meanwhile, so a concurrent delete cannot leave a derivative behind.
+     */
+    public boolean commitDerivative(String storedFileName, String derivative, Path encoded, ReferenceCounter references)
+            throws IOException {
+        return withBlobLock(storedFileName, () -> {
+            if (references.count(storedFileName) == 0 || !Files.exists(resolve(storedFileName))) {
+                Files.deleteIfExists(encoded);
+                return false;
+            }
+            Files.move(encoded, resolve(derivativeName(storedFileName, derivative)),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        });
+    }
+
+    /**
+     * Deletes the blob if {@code references} reports no remaining metadata for it. The check and the
+     * delete run under the same lock as commit(), so an upload of the same content cannot be lost.
+     */
+    public boolean deleteIfUnreferenced(String storedFileName, ReferenceCounter references) throws IOException {
+        return reclaimIfUnreferenced(storedFileName, references) >= 0;
+    }
+
+    /**
+     * Same as {@link #deleteIfUnreferenced} but returns the bytes freed (blob plus derivatives),
+     * or -1 when the blob is still referenced.
+     */
+    public long reclaimIfUnreferenced(String storedFileName, ReferenceCounter references) throws IOException {
+        return withBlobLock(storedFileName, () -> {
+            if (references.count(storedFileName) > 0) {
+                return -1L;
+            }
+            return deleteAndMeasure(derivativeName(storedFileName, THUMBNAIL))
+                    + deleteAndMeasure(derivativeName(storedFileName, PREVIEW))
+                    + deleteAndMeasure(storedFileName);
+        });
+    }
+
+    // Walks every stored file below the root; callers must close the stream
+    public Stream<Path> walk() throws IOException {
+        Files.createDirectories(root);
+        return Files.walk(root).filter(Files::isRegularFile);
+    }
+
+    public String storedFileNameOf(Path path) {
+        return root.relativize(path.toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    public static boolean isStagedUpload(String storedFileName) {
+        return storedFileName.endsWith(".part");
+    }
+
+    // Returns the base blob name for a derivative, or null when the name is not a derivative
+    public static String blobNameOfDerivative(String storedFileName) {
+        for (String derivative : new String[]{THUMBNAIL, PREVIEW}) {
+            String suffix = "_" + derivative + ".jpg";
+            if (storedFileName.endsWith(suffix)) {
+                return storedFileName.substring(0, storedFileName.length() - suffix.length());
+            }
+        }
+        return null;
+    }
+
+    private long deleteAndMeasure(String storedFileName) throws IOException {
+        Path path = resolve(storedFileName);
+        if (!Files.exists(path)) {
+            return 0L;
+        }
+        long size = Files.size(path);
+        return Files.deleteIfExists(path) ? size : 0L;
+    }
+
+    private <T> T withBlobLock(String storedFileName, IOAction<T> action) throws IOException {
+        ReentrantLock lock = locks[Math.floorMod(storedFileName.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record StagedBlob(Path tempFile, String storedFileName, long size, String sha256) {
+    }
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface ReferenceCounter {
+        long count(String storedFileName);
+    }
+
+    @FunctionalInterface
+    private interface IOAction<T> {
+        T run() throws IOException;
+    }
+}
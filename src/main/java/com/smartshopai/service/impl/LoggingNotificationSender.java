@@ -0,0 +1,19 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.domain.entity.Notification;
+import com.smartshopai.service.NotificationSender;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.UUID;
+
+// Fallback sender registered by NotificationConfig until a real push sender exists; delivery is only logged
+@Slf4j
+public class LoggingNotificationSender implements NotificationSender {
+
+    @Override
+    public String send(Notification notification) {
+        log.info("Delivering notification {} to user {}: {}",
+                notification.getId(), notification.getTargetUserId(), notification.getTitle());
+        return "local-" + UUID.randomUUID();
+    }
+}
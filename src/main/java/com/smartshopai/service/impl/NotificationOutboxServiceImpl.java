@@ -0,0 +1,134 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.config.BusinessConfig;
+import com.smartshopai.domain.entity.Notification;
+import com.smartshopai.service.NotificationOutboxService;
+import com.smartshopai.service.NotificationSender;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxServiceImpl implements NotificationOutboxService {
+
+    private static final long MAX_BACKOFF_SECONDS = 24 * 60 * 60;
+
+    private final MongoTemplate mongoTemplate;
+    private final NotificationSender notificationSender;
+    private final BusinessConfig businessConfig;
+    @Qualifier("notificationExecutor")
+    private final Executor notificationExecutor;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Override
+    public int processOutbox() {
+        int workers = Math.max(1, businessConfig.getNotification().getWorkers());
+        List<CompletableFuture<Integer>> runs = new ArrayList<>(workers);
+
+        for (int i = 0; i < workers; i++) {
+            String owner = instanceId + "-" + i;
+            try {
+                runs.add(CompletableFuture.supplyAsync(() -> drain(owner), notificationExecutor));
+            } catch (RejectedExecutionException e) {
+                // Executor is busy with fan-out; fewer workers this round, the rest are picked up next tick
+                log.debug("Notification executor is full, starting {} outbox workers", runs.size());
+                break;
+            }
+        }
+
+        int processed = runs.isEmpty() ? drain(instanceId + "-inline") : 0;
+        for (CompletableFuture<Integer> run : runs) {
+            processed += run.join();
+        }
+        return processed;
+    }
+
+    // Each worker claims and delivers up to one batch so a single tick stays bounded
+    private int drain(String owner) {
+        int batchSize = Math.max(1, businessConfig.getNotification().getBatchSize());
+        int processed = 0;
+
+        while (processed < batchSize) {
+            Notification notification = claimNext(owner);
+            if (notification == null) {
+                break;
+            }
+            deliver(notification, owner);
+            processed++;
+        }
+        return processed;
+    }
+
+    private Notification claimNext(String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        BusinessConfig.Notification config = businessConfig.getNotification();
+
+        Query query = new Query(Criteria.where("deliveryStatus")
+                .in(Notification.DeliveryStatus.PENDING, Notification.DeliveryStatus.FAILED)
+                .and("retryCount").lt(config.getMaxRetries())
+                .andOperator(
+                        new Criteria().orOperator(Criteria.where("nextAttemptAt").is(null), Criteria.where("nextAttemptAt").lte(now)),
+                        new Criteria().orOperator(Criteria.where("leaseUntil").is(null), Criteria.where("leaseUntil").lt(now)),
+                        new Criteria().orOperator(Criteria.where("scheduledFor").is(null), Criteria.where("scheduledFor").lte(now))))
+                .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+
+        Update lease = new Update()
+                .set("leaseOwner", owner)
+                .set("leaseUntil", now.plusSeconds(config.getLeaseSeconds()));
+
+        return mongoTemplate.findAndModify(query, lease, FindAndModifyOptions.options().returnNew(true), Notification.class);
+    }
+
+    private void deliver(Notification notification, String owner) {
+        Query leased = new Query(Criteria.where("id").is(notification.getId()).and("leaseOwner").is(owner));
+        LocalDateTime now = LocalDateTime.now();
+
+        try {
+            String messageId = notificationSender.send(notification);
+            mongoTemplate.updateFirst(leased, new Update()
+                    .set("deliveryStatus", Notification.DeliveryStatus.SENT)
+                    .set("sentAt", now)
+                    .set("fcmMessageId", messageId)
+                    .set("updatedAt", now)
+                    .unset("leaseOwner")
+                    .unset("leaseUntil")
+                    .unset("nextAttemptAt")
+                    .unset("lastError"), Notification.class);
+        } catch (Exception e) {
+            int attempts = notification.getRetryCount() + 1;
+            log.warn("Notification {} delivery attempt {} failed: {}", notification.getId(), attempts, e.getMessage());
+            mongoTemplate.updateFirst(leased, new Update()
+                    .set("deliveryStatus", Notification.DeliveryStatus.FAILED)
+                    .set("retryCount", attempts)
+                    .set("nextAttemptAt", now.plusSeconds(backoffSeconds(attempts)))
+                    .set("lastError", e.getMessage())
+                    .set("updatedAt", now)
+                    .unset("leaseOwner")
+                    .unset("leaseUntil"), Notification.class);
+        }
+    }
+
+    // retryDelaySeconds, 2x, 4x, ... capped at one day
+    private long backoffSeconds(int attempts) {
+        long base = businessConfig.getNotification().getRetryDelaySeconds();
+        return Math.min(MAX_BACKOFF_SECONDS, base << Math.min(attempts - 1, 16));
+    }
+}
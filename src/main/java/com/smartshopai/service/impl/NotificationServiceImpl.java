@@ -1,22 +1,33 @@
 package com.smartshopai.service.impl;
 
+import com.smartshopai.config.BusinessConfig;
+import com.smartshopai.domain.dto.NotificationBatchDto;
 import com.smartshopai.domain.dto.NotificationDto;
 import com.smartshopai.domain.dto.UserDto;
 import com.smartshopai.domain.entity.Notification;
 import com.smartshopai.domain.entity.User;
 import com.smartshopai.exception.ResourceNotFoundException;
+import com.smartshopai.exception.ServiceUnavailableException;
 import com.smartshopai.repository.NotificationRepository;
 import com.smartshopai.domain.mapper.NotificationMapper;
+import com.smartshopai.service.NotificationBatchTracker;
 import com.smartshopai.service.NotificationService;
 import com.smartshopai.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +38,11 @@ public class NotificationServiceImpl implements NotificationService {
     private final UserService userService;
     private final NotificationRepository notificationRepository;
     private final NotificationMapper notificationMapper;
+    private final MongoTemplate mongoTemplate;
+    private final BusinessConfig businessConfig;
+    private final NotificationBatchTracker notificationBatchTracker;
+    @Qualifier("notificationExecutor")
+    private final Executor notificationExecutor;
 
     @Override
     public void sendNotificationToUser(String userId, NotificationDto notification) {
@@ -44,58 +60,164 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
-    public void sendNotificationToUsers(List<String> userIds, NotificationDto notification) {
+    public NotificationBatchDto sendNotificationToUsers(List<String> userIds, NotificationDto notification) {
         log.info("Sending notification to {} users", userIds.size());
-        
-        userIds.forEach(userId -> sendNotificationToUser(userId, notification));
+
+        return dispatch(() -> userIds.stream()
+                .map(userId -> new Recipient(userId, null))
+                .toList(), recipient -> toBatchEntity(notification, recipient));
     }
 
     @Override
-    public void sendNotificationToAllUsers(NotificationDto notification) {
+    public NotificationBatchDto sendNotificationToAllUsers(NotificationDto notification) {
         log.info("Sending notification to all users");
-        
-        List<UserDto> usersWithFcmToken = userService.getUsersWithFcmToken();
-        usersWithFcmToken.forEach(user -> {
-            if (user.getFcmToken() != null) {
-                sendNotificationToUser(user.getId(), notification);
-            }
-        });
+
+        return dispatch(() -> recipientsOf(userService.getUsersWithFcmToken()),
+                recipient -> toBatchEntity(notification, recipient));
     }
 
     @Override
-    public void sendNotificationToUsersByRole(String role, NotificationDto notification) {
+    public NotificationBatchDto sendNotificationToUsersByRole(String role, NotificationDto notification) {
         log.info("Sending notification to users with role: {}", role);
-        
-        List<UserDto> usersByRole = userService.getUsersByRole(User.Role.valueOf(role.toUpperCase()));
-        usersByRole.forEach(user -> {
-            if (user.getFcmToken() != null) {
-                sendNotificationToUser(user.getId(), notification);
-            }
-        });
+
+        User.Role targetRole = User.Role.valueOf(role.toUpperCase());
+        return dispatch(() -> recipientsOf(userService.getUsersByRole(targetRole)),
+                recipient -> toBatchEntity(notification, recipient));
     }
 
     @Override
-    public void sendNotificationToUsersByApartment(String apartmentNumber, NotificationDto notification) {
+    public NotificationBatchDto sendNotificationToUsersByApartment(String apartmentNumber, NotificationDto notification) {
         log.info("Sending notification to users in apartment: {}", apartmentNumber);
-        
-        List<UserDto> usersByApartment = userService.getUsersByApartmentNumber(apartmentNumber);
-        usersByApartment.forEach(user -> {
-            if (user.getFcmToken() != null) {
-                sendNotificationToUser(user.getId(), notification);
-            }
-        });
+
+        return dispatch(() -> recipientsOf(userService.getUsersByApartmentNumber(apartmentNumber)),
+                recipient -> toBatchEntity(notification, recipient));
     }
 
     @Override
-    public void sendNotificationToUsersByBuilding(String buildingNumber, NotificationDto notification) {
+    public NotificationBatchDto sendNotificationToUsersByBuilding(String buildingNumber, NotificationDto notification) {
         log.info("Sending notification to users in building: {}", buildingNumber);
-        
-        List<UserDto> usersByBuilding = userService.getUsersByBuildingNumber(buildingNumber);
-        usersByBuilding.forEach(user -> {
-            if (user.getFcmToken() != null) {
-                sendNotificationToUser(user.getId(), notification);
-            }
-        });
+
+        return dispatch(() -> recipientsOf(userService.getUsersByBuildingNumber(buildingNumber)),
+                recipient -> toBatchEntity(notification, recipient));
+    }
+
+    @Override
+    public NotificationBatchDto sendNotificationsToSite(String siteId, List<NotificationDto> notifications) {
+        log.info("Sending {} individual notifications to site: {}", notifications.size(), siteId);
+
+        return dispatch(() -> notifications, notification -> toSiteEntity(notification, siteId));
+    }
+
+    @Override
+    public NotificationBatchDto sendNotificationsToSiteAndWait(String siteId, List<NotificationDto> notifications) {
+        log.info("Writing {} individual notifications to site: {}", notifications.size(), siteId);
+
+        return dispatch(() -> notifications, notification -> toSiteEntity(notification, siteId), false);
+    }
+
+    @Override
+    public NotificationBatchDto getNotificationBatch(String batchId) {
+        return notificationBatchTracker.get(batchId)
+                .orElseThrow(() -> new ResourceNotFoundException("Notification batch not found with ID: " + batchId));
+    }
+
+    // Recipient lookup and inserts run on notificationExecutor; a full queue is rejected instead of blocking the caller
+    private <T> NotificationBatchDto dispatch(Supplier<List<T>> recipients, Function<T, Notification> toEntity) {
+        return dispatch(recipients, toEntity, businessConfig.getNotification().isAsyncDispatch());
+    }
+
+    private <T> NotificationBatchDto dispatch(Supplier<List<T>> recipients, Function<T, Notification> toEntity, boolean async) {
+        NotificationBatchDto batch = NotificationBatchDto.builder()
+                .batchId(UUID.randomUUID().toString())
+                .status(NotificationBatchDto.BatchStatus.QUEUED)
+                .createdAt(LocalDateTime.now())
+                .build();
+        notificationBatchTracker.register(batch);
+
+        if (!async) {
+            runBatch(batch.getBatchId(), recipients, toEntity);
+            return getNotificationBatch(batch.getBatchId());
+        }
+
+        try {
+            notificationExecutor.execute(() -> runBatch(batch.getBatchId(), recipients, toEntity));
+        } catch (RejectedExecutionException e) {
+            notificationBatchTracker.update(batch.getBatchId(), b -> b
+                    .status(NotificationBatchDto.BatchStatus.FAILED)
+                    .completedAt(LocalDateTime.now()));
+            log.warn("Notification queue is full, rejecting batch {}", batch.getBatchId());
+            throw new ServiceUnavailableException("Notification queue is full, please retry later", 30, e);
+        }
+        return batch;
+    }
+
+    private <T> void runBatch(String batchId, Supplier<List<T>> recipients, Function<T, Notification> toEntity) {
+        try {
+            notificationBatchTracker.update(batchId, b -> b.status(NotificationBatchDto.BatchStatus.RUNNING));
+            fanOut(batchId, recipients.get(), toEntity);
+            notificationBatchTracker.update(batchId, b -> b
+                    .status(NotificationBatchDto.BatchStatus.COMPLETED)
+                    .completedAt(LocalDateTime.now()));
+        } catch (Exception e) {
+            log.error("Notification batch {} failed: {}", batchId, e.getMessage(), e);
+            notificationBatchTracker.update(batchId, b -> b
+                    .status(NotificationBatchDto.BatchStatus.FAILED)
+                    .completedAt(LocalDateTime.now()));
+        }
+    }
+
+    private List<Recipient> recipientsOf(List<UserDto> users) {
+        return users.stream()
+                .filter(user -> user.getFcmToken() != null)
+                .map(user -> new Recipient(user.getId(), user.getSiteId()))
+                .toList();
+    }
+
+    // Builds the notifications chunk by chunk and writes each chunk with one unordered bulk insert
+    private <T> void fanOut(String batchId, List<T> recipients, Function<T, Notification> toEntity) {
+        LocalDateTime now = LocalDateTime.now();
+        int batchSize = Math.max(1, businessConfig.getNotification().getBatchSize());
+        notificationBatchTracker.update(batchId, b -> b.totalRecipients(recipients.size()));
+
+        int inserted = 0;
+        for (int from = 0; from < recipients.size(); from += batchSize) {
+            List<Notification> chunk = recipients.subList(from, Math.min(from + batchSize, recipients.size())).stream()
+                    .map(toEntity)
+                    .toList();
+            chunk.forEach(entity -> {
+                entity.setBatchId(batchId);
+                entity.setCreatedAt(now);
+                entity.setUpdatedAt(now);
+            });
+
+            inserted += mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class)
+                    .insert(chunk)
+                    .execute()
+                    .getInsertedCount();
+
+            int progress = inserted;
+            notificationBatchTracker.update(batchId, b -> b.insertedCount(progress));
+        }
+
+        log.info("Notification batch {} inserted {} of {} notifications", batchId, inserted, recipients.size());
+    }
+
+    private Notification toBatchEntity(NotificationDto notification, Recipient recipient) {
+        Notification entity = notificationMapper.toEntity(notification);
+        entity.setId(null);
+        entity.setTargetUserId(recipient.userId());
+        entity.setSiteId(recipient.siteId());
+        return entity;
+    }
+
+    private Notification toSiteEntity(NotificationDto notification, String siteId) {
+        Notification entity = notificationMapper.toEntity(notification);
+        entity.setId(null);
+        entity.setSiteId(siteId);
+        return entity;
+    }
+
+    private record Recipient(String userId, String siteId) {
     }
 
     @Override
@@ -0,0 +1,333 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.config.BusinessConfig;
+import com.smartshopai.domain.dto.DuesGenerationReport;
+import com.smartshopai.domain.dto.DuesGenerationRequest;
+import com.smartshopai.domain.dto.LateFeeRunReport;
+import com.smartshopai.domain.entity.Payment;
+import com.smartshopai.domain.entity.Site;
+import com.smartshopai.domain.entity.User;
+import com.smartshopai.repository.UserRepository;
+import com.smartshopai.security.SitePermissionResolver;
+import com.smartshopai.service.PaymentBatchService;
+import com.smartshopai.service.PaymentRollupService;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentBatchServiceImpl implements PaymentBatchService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int DUPLICATE_KEY = 11000;
+    private static final List<Payment.PaymentStatus> UNPAID =
+            List.of(Payment.PaymentStatus.PENDING, Payment.PaymentStatus.OVERDUE);
+
+    private final MongoTemplate mongoTemplate;
+    private final LateFeeCalculator lateFeeCalculator;
+    private final PaymentRollupService paymentRollupService;
+    private final MeterRegistry meterRegistry;
+    private final UserRepository userRepository;
+    private final SitePermissionResolver sitePermissionResolver;
+    private final BusinessConfig businessConfig;
+    @Qualifier("taskExecutor")
+    private final Executor taskExecutor;
+
+    @Override
+    public LateFeeRunReport applyLateFees(LocalDate asOf) {
+        log.info("Applying late fees as of {}", asOf);
+
+        // Each site is an independent partition, so sites run in parallel and never contend on documents
+        List<String> siteIds = siteIdsWith(Criteria.where("status").in(UNPAID).and("dueDate").lt(asOf));
+        LateFeeRunReport report = LateFeeRunReport.builder().asOf(asOf).build();
+        List<LateFeeRunReport> siteReports = runPerSite(siteIds, siteId -> applyLateFees(siteId, asOf), report.getFailedSites());
+
+        boolean unpartitionedUpdated = false;
+        for (int i = 0; i < siteReports.size(); i++) {
+            LateFeeRunReport siteReport = siteReports.get(i);
+            if (siteReport == null) {
+                continue;
+            }
+            unpartitionedUpdated |= siteIds.get(i) == null && siteReport.getPaymentsUpdated() > 0;
+            report.setSitesProcessed(report.getSitesProcessed() + 1);
+            report.setPaymentsScanned(report.getPaymentsScanned() + siteReport.getPaymentsScanned());
+            report.setPaymentsUpdated(report.getPaymentsUpdated() + siteReport.getPaymentsUpdated());
+            report.setTotalLateFees(report.getTotalLateFees().add(siteReport.getTotalLateFees()));
+        }
+        if (unpartitionedUpdated) {
+            paymentRollupService.rebuildRollups();
+        }
+
+        log.info("Late fees applied: {}", report);
+        return report;
+    }
+
+    @Override
+    public long markOverduePayments(LocalDate asOf) {
+        log.info("Marking payments due before {} as overdue", asOf);
+
+        List<String> siteIds = siteIdsWith(Criteria.where("status").is(Payment.PaymentStatus.PENDING).and("dueDate").lt(asOf));
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+        boolean unpartitionedUpdated = false;
+
+        for (String siteId : siteIds) {
+            Query due = new Query(Criteria.where("siteId").is(siteId)
+                    .and("status").is(Payment.PaymentStatus.PENDING)
+                    .and("dueDate").lt(asOf));
+            UpdateResult result = mongoTemplate.updateMulti(due, new Update()
+                    .set("status", Payment.PaymentStatus.OVERDUE)
+                    .set("updatedAt", now), Payment.class);
+
+            long modified = result.getModifiedCount();
+            if (modified == 0) {
+                continue;
+            }
+            total += modified;
+            meterRegistry.counter("payments.overdue.transitioned").increment(modified);
+            log.debug("Marked {} payments overdue for site {}", modified, siteId);
+
+            if (siteId != null) {
+                paymentRollupService.rebuildRollups(siteId);
+            } else {
+                unpartitionedUpdated = true;
+            }
+        }
+        if (unpartitionedUpdated) {
+            paymentRollupService.rebuildRollups();
+        }
+
+        log.info("Marked {} payments overdue across {} sites", total, siteIds.size());
+        return total;
+    }
+
+    @Override
+    public DuesGenerationReport generateDues(DuesGenerationRequest request) {
+        // Users outside SUPER_ADMIN only ever generate dues for their own site
+        List<String> siteIds = sitePermissionResolver.resolveCurrentUser()
+                .filter(permissions -> !permissions.isSuperAdmin())
+                .map(permissions -> Stream.ofNullable(permissions.siteId()).toList())
+                .orElseGet(() -> request.getSiteIds() != null && !request.getSiteIds().isEmpty()
+                        ? request.getSiteIds()
+                        : activeSiteIds());
+        log.info("Generating {} {} dues for {} sites", request.getDueMonth(), request.getPaymentType(), siteIds.size());
+
+        DuesGenerationReport report = DuesGenerationReport.builder().dueMonth(request.getDueMonth()).build();
+        List<DuesGenerationReport> siteReports = runPerSite(siteIds, siteId -> generateDues(siteId, request), report.getFailedSites());
+        for (DuesGenerationReport siteReport : siteReports) {
+            if (siteReport == null) {
+                continue;
+            }
+            report.setSitesProcessed(report.getSitesProcessed() + 1);
+            report.setApartments(report.getApartments() + siteReport.getApartments());
+            report.setCreated(report.getCreated() + siteReport.getCreated());
+            report.setAlreadyExisting(report.getAlreadyExisting() + siteReport.getAlreadyExisting());
+        }
+
+        log.info("Dues generated: {}", report);
+        return report;
+    }
+
+    private DuesGenerationReport generateDues(String siteId, DuesGenerationRequest request) {
+        YearMonth dueMonth = request.getDueMonth();
+        LocalDate dueDate = request.getDueDay() != null
+                ? dueMonth.atDay(Math.min(request.getDueDay(), dueMonth.lengthOfMonth()))
+                : dueMonth.atEndOfMonth();
+        LocalDateTime now = LocalDateTime.now();
+
+        // One row per apartment, billed to the first enabled resident found for it
+        Map<String, User> residents = new LinkedHashMap<>();
+        for (User user : userRepository.findBySiteId(siteId)) {
+            if (user.isEnabled() && user.getApartmentNumber() != null) {
+                residents.putIfAbsent(user.getBuildingNumber() + "/" + user.getApartmentNumber(), user);
+            }
+        }
+
+        List<Payment> dues = residents.values().stream()
+                .map(resident -> Payment.builder()
+                        .userId(resident.getId())
+                        .siteId(siteId)
+                        .buildingNumber(resident.getBuildingNumber())
+                        .apartmentNumber(resident.getApartmentNumber())
+                        .paymentType(request.getPaymentType())
+                        .description(request.getDescription())
+                        .amount(request.getAmount())
+                        .totalAmount(request.getAmount())
+                        .dueDate(dueDate)
+                        .dueMonth(dueMonth)
+                        .dueYear(dueMonth.getYear())
+                        .dueMonthNumber(dueMonth.getMonthValue())
+                        .duesGenerated(true)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build())
+                .toList();
+
+        long created = 0;
+        for (int from = 0; from < dues.size(); from += CHUNK_SIZE) {
+            created += insertDues(dues.subList(from, Math.min(from + CHUNK_SIZE, dues.size())));
+        }
+
+        if (created > 0) {
+            paymentRollupService.rebuildRollups(siteId);
+        }
+        DuesGenerationReport report = DuesGenerationReport.builder()
+                .dueMonth(dueMonth)
+                .apartments(dues.size())
+                .created(created)
+                .alreadyExisting(dues.size() - created)
+                .build();
+        log.debug("Dues for site {}: {}", siteId, report);
+        return report;
+    }
+
+    // Rows that already exist hit the site_apartment_dues unique index and are skipped, so reruns are harmless
+    private long insertDues(List<Payment> chunk) {
+        try {
+            return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)
+                    .insert(chunk)
+                    .execute()
+                    .getInsertedCount();
+        } catch (BulkOperationException e) {
+            boolean onlyDuplicates = e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+            return e.getResult().getInsertedCount();
+        }
+    }
+
+    private List<String> activeSiteIds() {
+        Query active = new Query(Criteria.where("status").is(Site.SiteStatus.ACTIVE));
+        active.fields().include("id");
+        return mongoTemplate.find(active, Site.class).stream().map(Site::getId).toList();
+    }
+
+    private LateFeeRunReport applyLateFees(String siteId, LocalDate asOf) {
+        Query overdue = new Query(Criteria.where("siteId").is(siteId)
+                .and("status").in(UNPAID)
+                .and("dueDate").lt(asOf))
+                .cursorBatchSize(CHUNK_SIZE);
+        overdue.fields().include("id", "amount", "dueDate", "lateFee");
+
+        LateFeeRunReport report = LateFeeRunReport.builder().asOf(asOf).build();
+        LocalDateTime now = LocalDateTime.now();
+        List<Payment> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (Stream<Payment> payments = mongoTemplate.stream(overdue, Payment.class)) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    writeLateFees(chunk, asOf, now, report);
+                    chunk.clear();
+                }
+            }
+        }
+
+        // A null site would rebuild every site's rollups, so the unpartitioned run leaves that to the caller
+        if (siteId != null && report.getPaymentsUpdated() > 0) {
+            paymentRollupService.rebuildRollups(siteId);
+        }
+        log.debug("Late fees for site {}: {}", siteId, report);
+        return report;
+    }
+
+    private void writeLateFees(List<Payment> chunk, LocalDate asOf, LocalDateTime now, LateFeeRunReport report) {
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class);
+        int changed = 0;
+
+        for (Payment payment : chunk) {
+            BigDecimal lateFee = lateFeeCalculator.calculate(payment.getAmount(), payment.getDueDate(), asOf);
+            report.setTotalLateFees(report.getTotalLateFees().add(lateFee));
+
+            // Only rows whose fee actually moved are rewritten
+            if (payment.getLateFee() != null && payment.getLateFee().compareTo(lateFee) == 0) {
+                continue;
+            }
+            updates.updateOne(new Query(Criteria.where("id").is(payment.getId())), new Update()
+                    .set("lateFee", lateFee)
+                    .set("totalAmount", payment.getAmount().add(lateFee))
+                    .set("updatedAt", now));
+            changed++;
+        }
+
+        if (changed > 0) {
+            updates.execute();
+        }
+        report.setPaymentsScanned(report.getPaymentsScanned() + chunk.size());
+        report.setPaymentsUpdated(report.getPaymentsUpdated() + changed);
+    }
+
+    // Bounded fan-out over the shared task executor; a site that fails is recorded and the others still finish.
+    // Results line up with siteIds and are null for failed sites
+    private <R> List<R> runPerSite(List<String> siteIds, Function<String, R> work, List<String> failedSites) {
+        Semaphore permits = new Semaphore(Math.max(1, businessConfig.getPayment().getSiteConcurrency()));
+        List<R> results = new ArrayList<>(Collections.nCopies(siteIds.size(), null));
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> runs = new ArrayList<>(siteIds.size());
+
+        for (int i = 0; i < siteIds.size(); i++) {
+            int index = i;
+            String siteId = siteIds.get(i);
+            permits.acquireUninterruptibly();
+            Runnable run = () -> {
+                try {
+                    results.set(index, work.apply(siteId));
+                } catch (Exception e) {
+                    failures.add(siteId);
+                    log.error("Payment batch failed for site {}", siteId, e);
+                } finally {
+                    permits.release();
+                }
+            };
+
+            try {
+                runs.add(CompletableFuture.runAsync(run, taskExecutor));
+            } catch (RejectedExecutionException e) {
+                run.run();
+            }
+        }
+
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+        failedSites.addAll(failures);
+        return results;
+    }
+
+    // Legacy payments written without a site are processed as their own partition
+    private List<String> siteIdsWith(Criteria criteria) {
+        List<String> siteIds = new ArrayList<>(mongoTemplate.findDistinct(new Query(criteria), "siteId", Payment.class, String.class));
+        if (mongoTemplate.exists(new Query(Criteria.where("siteId").is(null)).addCriteria(criteria), Payment.class)) {
+            siteIds.add(null);
+        }
+        return siteIds;
+    }
+}
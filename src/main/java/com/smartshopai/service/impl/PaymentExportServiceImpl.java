@@ -0,0 +1,235 @@
+package com.smartshopai.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartshopai.config.BusinessConfig;
+import com.smartshopai.domain.dto.PaymentExportFormat;
+import com.smartshopai.domain.dto.PaymentSearchCriteria;
+import com.smartshopai.domain.entity.FileEntity;
+import com.smartshopai.domain.entity.Payment;
+import com.smartshopai.repository.FileRepository;
+import com.smartshopai.security.SitePermissionResolver;
+import com.smartshopai.service.PaymentExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentExportServiceImpl implements PaymentExportService {
+
+    private static final int CURSOR_BATCH_SIZE = 1000;
+    private static final List<String> COLUMNS = List.of(
+            "id", "siteId", "userId", "buildingNumber", "apartmentNumber", "paymentType", "status",
+            "dueDate", "amount", "lateFee", "discountAmount", "totalAmount",
+            "paymentMethod", "paymentDate", "transactionReference", "updatedAt");
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final LocalFileStorage localFileStorage;
+    private final FileRepository fileRepository;
+    private final SitePermissionResolver sitePermissionResolver;
+    private final BusinessConfig businessConfig;
+
+    @Override
+    public void exportPayments(PaymentSearchCriteria criteria, PaymentExportFormat format, OutputStream out) throws IOException {
+        // Users outside SUPER_ADMIN only ever export their own site
+        String siteId = sitePermissionResolver.scopeSiteId(criteria.getSiteId());
+
+        Query query = new Query();
+        if (siteId != null) {
+            query.addCriteria(Criteria.where("siteId").is(siteId));
+        }
+        if (criteria.getStatus() != null && !criteria.getStatus().isBlank()) {
+            query.addCriteria(Criteria.where("status").is(parseStatus(criteria.getStatus())));
+        }
+        LocalDate startDate = parseDate("startDate", criteria.getStartDate());
+        LocalDate endDate = parseDate("endDate", criteria.getEndDate());
+        if (startDate != null || endDate != null) {
+            Criteria dueDate = Criteria.where("dueDate");
+            if (startDate != null) {
+                dueDate.gte(startDate);
+            }
+            if (endDate != null) {
+                dueDate.lte(endDate);
+            }
+            query.addCriteria(dueDate);
+        }
+
+        // Within a site the site_due index serves the sort; across sites only _id order avoids an in-memory sort
+        query.with(siteId != null ? Sort.by("dueDate", "id") : Sort.by("id"));
+        long rows = write(query, format, out);
+        log.info("Exported {} payments as {} for site {}", rows, format, siteId);
+    }
+
+    @Override
+    public int generateDailyReports(LocalDate day) {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+        Criteria changed = Criteria.where("updatedAt").gte(from).lt(to);
+        PaymentExportFormat format = PaymentExportFormat.from(businessConfig.getPayment().getReportFormat());
+
+        List<String> siteIds = mongoTemplate.findDistinct(new Query(changed), "siteId", Payment.class, String.class);
+        int reports = 0;
+        for (String siteId : siteIds) {
+            try {
+                Query query = new Query(Criteria.where("updatedAt").gte(from).lt(to).and("siteId").is(siteId))
+                        .with(Sort.by("id"));
+                storeReport(siteId, day, format, query);
+                reports++;
+            } catch (Exception e) {
+                log.error("Daily payment report failed for site {}: {}", siteId, e.getMessage(), e);
+            }
+        }
+        return reports;
+    }
+
+    // The report goes through the regular file store; FileServiceImpl limits PAYMENT_REPORT files to the site's admins
+    private void storeReport(String siteId, LocalDate day, PaymentExportFormat format, Query query) throws IOException {
+        String fileName = "payments-" + siteId + "-" + day + format.getExtension();
+        LocalFileStorage.StagedBlob blob = localFileStorage.stage(out -> write(query, format, out), format.getExtension(), siteId);
+
+        String fileId = new ObjectId().toHexString();
+        FileEntity report = FileEntity.builder()
+                .id(fileId)
+                .originalFileName(fileName)
+                .searchTokens(FileNameTokenizer.indexTokens(fileName))
+                .storedFileName(blob.storedFileName())
+                .fileUrl("/files/" + fileId + "/content")
+                .fileType(format.getExtension())
+                .fileSize(blob.size())
+                .fileHash(blob.sha256())
+                .category(FileEntity.PAYMENT_REPORT_CATEGORY)
+                .mimeType(format.getContentType())
+                .storageProvider(FileEntity.StorageProvider.LOCAL)
+                .uploadedByName("System")
+                .siteId(siteId)
+                .uploadedAt(LocalDateTime.now())
+                .build();
+
+        fileRepository.insert(report);
+        try {
+            localFileStorage.commit(blob);
+        } catch (IOException e) {
+            fileRepository.deleteById(fileId);
+            localFileStorage.discard(blob);
+            throw e;
+        }
+        log.info("Stored daily payment report {} ({} bytes)", fileName, blob.size());
+    }
+
+    // Rows go straight from the cursor to the stream, so memory stays flat however many payments match
+    private long write(Query query, PaymentExportFormat format, OutputStream out) throws IOException {
+        query.cursorBatchSize(CURSOR_BATCH_SIZE);
+        query.fields().include(COLUMNS.toArray(String[]::new));
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == PaymentExportFormat.CSV) {
+            // BOM so spreadsheet apps read the file as UTF-8
+            writer.write('\uFEFF');
+            writeCsvLine(writer, COLUMNS);
+        }
+
+        long rows = 0;
+        try (Stream<Payment> payments = mongoTemplate.stream(query, Payment.class)) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                Map<String, Object> row = row(iterator.next());
+                if (format == PaymentExportFormat.NDJSON) {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                } else {
+                    writeCsvLine(writer, row.values().stream().map(PaymentExportServiceImpl::csvValue).toList());
+                }
+                rows++;
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static Map<String, Object> row(Payment payment) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", payment.getId());
+        row.put("siteId", payment.getSiteId());
+        row.put("userId", payment.getUserId());
+        row.put("buildingNumber", payment.getBuildingNumber());
+        row.put("apartmentNumber", payment.getApartmentNumber());
+        row.put("paymentType", payment.getPaymentType());
+        row.put("status", payment.getStatus());
+        row.put("dueDate", payment.getDueDate());
+        row.put("amount", payment.getAmount());
+        row.put("lateFee", payment.getLateFee());
+        row.put("discountAmount", payment.getDiscountAmount());
+        row.put("totalAmount", payment.getTotalAmount());
+        row.put("paymentMethod", payment.getPaymentMethod());
+        row.put("paymentDate", payment.getPaymentDate());
+        row.put("transactionReference", payment.getTransactionReference());
+        row.put("updatedAt", payment.getUpdatedAt());
+        return row;
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+
+    private static void writeCsvLine(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values.get(i);
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static Payment.PaymentStatus parseStatus(String value) {
+        try {
+            return Payment.PaymentStatus.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status: " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + ", expected yyyy-MM-dd: " + value);
+        }
+    }
+}
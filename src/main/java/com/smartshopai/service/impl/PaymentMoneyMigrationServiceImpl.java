@@ -0,0 +1,121 @@
+package com.smartshopai.service.impl;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.smartshopai.domain.dto.PaymentMigrationStatus;
+import com.smartshopai.domain.entity.Payment;
+import com.smartshopai.service.PaymentMoneyMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rewrites money fields that older versions persisted as strings into Decimal128.
+ * Each batch is converted server-side by a pipeline update, so a concurrent write is never overwritten
+ * with a stale value, and the application keeps reading both representations while it runs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentMoneyMigrationServiceImpl implements PaymentMoneyMigrationService {
+
+    private static final int BATCH_SIZE = 500;
+    private static final List<String> MONEY_FIELDS = List.of("amount", "late_fee", "total_amount", "discount_amount");
+
+    private final MongoTemplate mongoTemplate;
+    @Qualifier("taskExecutor")
+    private final Executor taskExecutor;
+
+    private final AtomicReference<PaymentMigrationStatus> status =
+            new AtomicReference<>(PaymentMigrationStatus.builder().build());
+
+    @Override
+    public PaymentMigrationStatus startMigration() {
+        PaymentMigrationStatus current = status.get();
+        PaymentMigrationStatus started = PaymentMigrationStatus.builder()
+                .running(true)
+                .startedAt(LocalDateTime.now())
+                .build();
+
+        if (current.isRunning() || !status.compareAndSet(current, started)) {
+            log.info("Payment money migration is already running");
+            return status.get();
+        }
+
+        taskExecutor.execute(this::migrate);
+        return started;
+    }
+
+    @Override
+    public PaymentMigrationStatus getStatus() {
+        return status.get();
+    }
+
+    private void migrate() {
+        log.info("Starting payment money migration");
+        MongoCollection<Document> payments = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Payment.class));
+        List<Bson> convert = List.of(new Document("$set", decimalConversions()));
+        Object lastId = null;
+
+        try {
+            while (true) {
+                List<Object> ids = nextBatch(payments, lastId);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                lastId = ids.get(ids.size() - 1);
+
+                long modified = payments.updateMany(Filters.in("_id", ids), convert).getModifiedCount();
+                int scanned = ids.size();
+                status.updateAndGet(s -> s.toBuilder()
+                        .scannedPayments(s.getScannedPayments() + scanned)
+                        .migratedPayments(s.getMigratedPayments() + modified)
+                        .build());
+            }
+            log.info("Payment money migration completed: {}", status.get());
+        } catch (Exception e) {
+            log.error("Payment money migration stopped: {}", e.getMessage(), e);
+        } finally {
+            status.updateAndGet(s -> s.toBuilder().running(false).finishedAt(LocalDateTime.now()).build());
+        }
+    }
+
+    // Paging by _id skips values that cannot be parsed instead of revisiting them forever
+    private List<Object> nextBatch(MongoCollection<Document> payments, Object lastId) {
+        Bson stringMoney = Filters.or(MONEY_FIELDS.stream().map(field -> Filters.type(field, "string")).toList());
+        Bson filter = lastId != null ? Filters.and(Filters.gt("_id", lastId), stringMoney) : stringMoney;
+
+        List<Object> ids = new ArrayList<>(BATCH_SIZE);
+        payments.find(filter)
+                .projection(Projections.include("_id"))
+                .sort(Sorts.ascending("_id"))
+                .limit(BATCH_SIZE)
+                .forEach(document -> ids.add(document.get("_id")));
+        return ids;
+    }
+
+    // Strings become Decimal128, anything else (numbers, missing fields, unparseable text) is left untouched
+    private static Document decimalConversions() {
+        Document set = new Document();
+        for (String field : MONEY_FIELDS) {
+            String value = "$" + field;
+            set.append(field, new Document("$cond", List.of(
+                    new Document("$eq", List.of(new Document("$type", value), "string")),
+                    new Document("$convert", new Document("input", value).append("to", "decimal").append("onError", value)),
+                    value)));
+        }
+        return set;
+    }
+}
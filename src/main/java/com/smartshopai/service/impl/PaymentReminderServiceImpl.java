@@ -0,0 +1,214 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.config.BusinessConfig;
+import com.smartshopai.domain.dto.NotificationBatchDto;
+import com.smartshopai.domain.dto.NotificationDto;
+import com.smartshopai.domain.entity.Payment;
+import com.smartshopai.domain.entity.Site;
+import com.smartshopai.exception.ResourceNotFoundException;
+import com.smartshopai.service.NotificationService;
+import com.smartshopai.service.PaymentReminderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReminderServiceImpl implements PaymentReminderService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final ZoneId DEFAULT_ZONE = ZoneId.of("Europe/Istanbul");
+    private static final List<Payment.PaymentStatus> UNPAID =
+            List.of(Payment.PaymentStatus.PENDING, Payment.PaymentStatus.OVERDUE);
+
+    private final MongoTemplate mongoTemplate;
+    private final NotificationService notificationService;
+    private final BusinessConfig businessConfig;
+
+    /**
+     * Called hourly; only sites whose local clock is at the configured reminder hour are processed,
+     * so each timezone gets its reminders at the same local time and the load is spread over the day.
+     */
+    @Override
+    public int sendDueReminders(Instant now) {
+        int reminderHour = businessConfig.getPayment().getReminderHour();
+        Map<ZoneId, List<Site>> sitesByZone = activeSites().stream()
+                .collect(Collectors.groupingBy(PaymentReminderServiceImpl::zoneOf));
+
+        int sent = 0;
+        for (Map.Entry<ZoneId, List<Site>> bucket : sitesByZone.entrySet()) {
+            ZonedDateTime localNow = now.atZone(bucket.getKey());
+            if (localNow.getHour() != reminderHour) {
+                continue;
+            }
+            log.info("Sending payment reminders for {} sites in {}", bucket.getValue().size(), bucket.getKey());
+            for (Site site : bucket.getValue()) {
+                try {
+                    sent += sendSiteReminders(site, localNow.toLocalDate());
+                } catch (Exception e) {
+                    // Unstamped payments are picked up again at the next run
+                    log.error("Payment reminders failed for site {}: {}", site.getId(), e.getMessage(), e);
+                }
+            }
+        }
+        return sent;
+    }
+
+    @Override
+    public void sendReminder(String paymentId) {
+        Payment payment = mongoTemplate.findById(paymentId, Payment.class);
+        if (payment == null) {
+            throw new ResourceNotFoundException("Payment not found with ID: " + paymentId);
+        }
+        if (!UNPAID.contains(payment.getStatus())) {
+            throw new IllegalArgumentException("Payment " + paymentId + " is " + payment.getStatus() + ", no reminder needed");
+        }
+        if (payment.getUserId() == null) {
+            throw new IllegalArgumentException("Payment " + paymentId + " has no user to remind");
+        }
+
+        // Manual reminders obey the same limits as the scheduled run
+        BusinessConfig.Payment settings = businessConfig.getPayment();
+        LocalDateTime now = LocalDateTime.now();
+        int remindersSent = payment.getPaymentRemindersSent() != null ? payment.getPaymentRemindersSent() : 0;
+        if (remindersSent >= settings.getMaxReminders()) {
+            throw new IllegalArgumentException("Payment " + paymentId + " already received " + remindersSent + " reminders");
+        }
+        if (payment.getLastReminderSent() != null
+                && payment.getLastReminderSent().isAfter(now.minusDays(settings.getReminderIntervalDays()))) {
+            throw new IllegalArgumentException("Payment " + paymentId + " was last reminded at " + payment.getLastReminderSent()
+                    + ", reminders are at least " + settings.getReminderIntervalDays() + " days apart");
+        }
+
+        deliver(payment.getSiteId(), List.of(toReminder(payment.getUserId(), List.of(payment))));
+        markReminded(List.of(payment.getId()), now);
+        log.info("Payment reminder sent for payment {}", paymentId);
+    }
+
+    private int sendSiteReminders(Site site, LocalDate today) {
+        int reminderDays = site.getSettings() != null && site.getSettings().getPaymentReminderDays() != null
+                ? site.getSettings().getPaymentReminderDays()
+                : 7;
+        BusinessConfig.Payment settings = businessConfig.getPayment();
+        LocalDateTime now = LocalDateTime.now();
+        // One hour of slack so a run that starts a few seconds earlier than last time still qualifies
+        LocalDateTime remindedBefore = now.minusDays(settings.getReminderIntervalDays()).plusHours(1);
+
+        // Payments created through the mapper carry no reminder counter at all, which counts as none sent
+        Query due = new Query(Criteria.where("siteId").is(site.getId())
+                .and("status").in(UNPAID)
+                .and("dueDate").lte(today.plusDays(reminderDays))
+                .andOperator(
+                        new Criteria().orOperator(
+                                Criteria.where("paymentRemindersSent").is(null),
+                                Criteria.where("paymentRemindersSent").lt(settings.getMaxReminders())),
+                        new Criteria().orOperator(
+                                Criteria.where("lastReminderSent").is(null),
+                                Criteria.where("lastReminderSent").lt(remindedBefore))))
+                .cursorBatchSize(CHUNK_SIZE);
+        due.fields().include("id", "userId", "amount", "totalAmount", "dueDate", "status", "apartmentNumber");
+
+        // Each user gets one notification listing all of their due payments
+        Map<String, List<Payment>> byUser = new LinkedHashMap<>();
+        try (Stream<Payment> payments = mongoTemplate.stream(due, Payment.class)) {
+            payments.filter(payment -> payment.getUserId() != null)
+                    .forEach(payment -> byUser.computeIfAbsent(payment.getUserId(), u -> new ArrayList<>()).add(payment));
+        }
+        if (byUser.isEmpty()) {
+            return 0;
+        }
+
+        List<NotificationDto> reminders = byUser.entrySet().stream()
+                .map(entry -> toReminder(entry.getKey(), entry.getValue()))
+                .toList();
+        deliver(site.getId(), reminders);
+
+        List<String> paymentIds = byUser.values().stream().flatMap(List::stream).map(Payment::getId).toList();
+        markReminded(paymentIds, now);
+
+        log.info("Sent {} payment reminders covering {} payments for site {}", reminders.size(), paymentIds.size(), site.getId());
+        return reminders.size();
+    }
+
+    // Payments are stamped only after their reminders are written, so a failed batch is retried at the next run
+    private void deliver(String siteId, List<NotificationDto> reminders) {
+        NotificationBatchDto batch = notificationService.sendNotificationsToSiteAndWait(siteId, reminders);
+        if (batch.getStatus() != NotificationBatchDto.BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Reminder batch " + batch.getBatchId() + " for site " + siteId + " did not complete");
+        }
+    }
+
+    private NotificationDto toReminder(String userId, List<Payment> payments) {
+        List<Payment> ordered = payments.stream().sorted(Comparator.comparing(Payment::getDueDate)).toList();
+        BigDecimal total = ordered.stream()
+                .map(payment -> payment.getTotalAmount() != null ? payment.getTotalAmount() : payment.getAmount())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long overdue = ordered.stream().filter(payment -> payment.getStatus() == Payment.PaymentStatus.OVERDUE).count();
+
+        String body = ordered.size() == 1
+                ? String.format("Aidat tutarı: %s TL\nSon ödeme tarihi: %s", total, ordered.get(0).getDueDate())
+                : String.format("%d ödenmemiş aidat (%d gecikmiş)\nToplam tutar: %s TL\nEn yakın son ödeme tarihi: %s",
+                        ordered.size(), overdue, total, ordered.get(0).getDueDate());
+
+        return NotificationDto.builder()
+                .title("Aidat Hatırlatması")
+                .body(body)
+                .type("PAYMENT_REMINDER")
+                .targetUserId(userId)
+                .targetApartment(ordered.get(0).getApartmentNumber())
+                .data(Map.of(
+                        "paymentIds", ordered.stream().map(Payment::getId).collect(Collectors.joining(",")),
+                        "totalAmount", total.toPlainString()))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void markReminded(List<String> paymentIds, LocalDateTime now) {
+        for (int from = 0; from < paymentIds.size(); from += CHUNK_SIZE) {
+            List<String> chunk = paymentIds.subList(from, Math.min(from + CHUNK_SIZE, paymentIds.size()));
+            mongoTemplate.updateMulti(new Query(Criteria.where("id").in(chunk)), new Update()
+                    .inc("paymentRemindersSent", 1)
+                    .set("lastReminderSent", now), Payment.class);
+        }
+    }
+
+    private List<Site> activeSites() {
+        Query active = new Query(Criteria.where("status").is(Site.SiteStatus.ACTIVE)
+                .and("settings.notificationEnabled").ne(false));
+        active.fields().include("id", "settings.timezone", "settings.paymentReminderDays");
+        return mongoTemplate.find(active, Site.class);
+    }
+
+    private static ZoneId zoneOf(Site site) {
+        String timezone = site.getSettings() != null ? site.getSettings().getTimezone() : null;
+        if (timezone == null) {
+            return DEFAULT_ZONE;
+        }
+        try {
+            return ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            log.warn("Site {} has invalid timezone {}, using {}", site.getId(), timezone, DEFAULT_ZONE);
+            return DEFAULT_ZONE;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.domain.dto.PaymentPeriodTotals;
+import com.smartshopai.domain.entity.Payment;
+import com.smartshopai.domain.entity.PaymentRollup;
+import com.smartshopai.repository.PaymentRepository;
+import com.smartshopai.repository.PaymentRollupRepository;
+import com.smartshopai.service.PaymentRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentRollupServiceImpl implements PaymentRollupService {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentRollupRepository paymentRollupRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void recordChange(Payment before, Payment after) {
+        RollupDelta removed = RollupDelta.of(before);
+        RollupDelta added = RollupDelta.of(after);
+
+        try {
+            if (removed != null && added != null && removed.sameKey(added)) {
+                apply(added.minus(removed));
+            } else {
+                if (removed != null) {
+                    apply(removed.negate());
+                }
+                if (added != null) {
+                    apply(added);
+                }
+            }
+        } catch (Exception e) {
+            // A missed delta is repaired by the next rebuild; never fail the payment write for it
+            log.error("Error updating payment rollup: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<PaymentPeriodTotals> getMonthlyTotals(Integer year, Integer month) {
+        List<PaymentRollup> rollups = month != null
+                ? paymentRollupRepository.findByYearAndMonth(year, month)
+                : paymentRollupRepository.findByYear(year);
+
+        Map<Integer, PaymentPeriodTotals> totalsByMonth = new TreeMap<>();
+        for (PaymentRollup rollup : rollups) {
+            PaymentPeriodTotals totals = totalsByMonth.computeIfAbsent(rollup.getMonth(),
+                    m -> PaymentPeriodTotals.builder().year(year).month(m).build());
+            totals.setTotalDues(totals.getTotalDues().add(rollup.getTotalDues()));
+            totals.setTotalPaid(totals.getTotalPaid().add(rollup.getTotalPaid()));
+            totals.setTotalPending(totals.getTotalPending().add(rollup.getTotalPending()));
+            totals.setTotalOverdue(totals.getTotalOverdue().add(rollup.getTotalOverdue()));
+            totals.setTotalLateFees(totals.getTotalLateFees().add(rollup.getTotalLateFees()));
+            totals.setTotalPayments(totals.getTotalPayments() + rollup.getTotalPayments());
+            totals.setPaidPayments(totals.getPaidPayments() + rollup.getPaidPayments());
+            totals.setPendingPayments(totals.getPendingPayments() + rollup.getPendingPayments());
+            totals.setOverduePayments(totals.getOverduePayments() + rollup.getOverduePayments());
+        }
+        return List.copyOf(totalsByMonth.values());
+    }
+
+    @Override
+    public int rebuildRollups() {
+        return rebuildRollups(null);
+    }
+
+    @Override
+    public int rebuildRollups(String siteId) {
+        log.info("Rebuilding payment rollups for site: {}", siteId != null ? siteId : "ALL");
+        LocalDateTime rebuildStartedAt = LocalDateTime.now();
+
+        List<PaymentPeriodTotals> totals = paymentRepository.aggregateSiteMonthlyTotals(siteId, null, null);
+        totals.stream()
+                .sorted(Comparator.comparing(PaymentPeriodTotals::getYear).thenComparing(PaymentPeriodTotals::getMonth))
+                .forEach(this::replace);
+
+        // Months whose payments were all deleted are not in the aggregation; drop their stale rollups
+        Criteria staleCriteria = Criteria.where("updatedAt").lt(rebuildStartedAt);
+        if (siteId != null) {
+            staleCriteria = staleCriteria.and("siteId").is(siteId);
+        }
+        mongoTemplate.remove(new Query(staleCriteria), PaymentRollup.class);
+
+        log.info("Payment rollups rebuilt: {} site/month documents", totals.size());
+        return totals.size();
+    }
+
+    private void apply(RollupDelta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        // A single $inc upsert: a month touched for the first time starts from zero, so concurrent first writes
+        // cannot seed each other's payments and then add them again. Rows written around this path are rebuilt.
+        Update update = new Update()
+                .inc("totalDues", new Decimal128(delta.totalDues()))
+                .inc("totalPaid", new Decimal128(delta.totalPaid()))
+                .inc("totalPending", new Decimal128(delta.totalPending()))
+                .inc("totalOverdue", new Decimal128(delta.totalOverdue()))
+                .inc("totalLateFees", new Decimal128(delta.totalLateFees()))
+                .inc("totalPayments", delta.totalPayments())
+                .inc("paidPayments", delta.paidPayments())
+                .inc("pendingPayments", delta.pendingPayments())
+                .inc("overduePayments", delta.overduePayments())
+                .set("updatedAt", LocalDateTime.now());
+
+        mongoTemplate.upsert(keyQuery(delta.siteId(), delta.year(), delta.month()), update, PaymentRollup.class);
+    }
+
+    private void replace(PaymentPeriodTotals totals) {
+        Update update = new Update()
+                .set("totalDues", new Decimal128(totals.getTotalDues()))
+                .set("totalPaid", new Decimal128(totals.getTotalPaid()))
+                .set("totalPending", new Decimal128(totals.getTotalPending()))
+                .set("totalOverdue", new Decimal128(totals.getTotalOverdue()))
+                .set("totalLateFees", new Decimal128(totals.getTotalLateFees()))
+                .set("totalPayments", totals.getTotalPayments())
+                .set("paidPayments", totals.getPaidPayments())
+                .set("pendingPayments", totals.getPendingPayments())
+                .set("overduePayments", totals.getOverduePayments())
+                .set("updatedAt", LocalDateTime.now());
+
+        mongoTemplate.upsert(keyQuery(totals.getSiteId(), totals.getYear(), totals.getMonth()), update, PaymentRollup.class);
+    }
+
+    private Query keyQuery(String siteId, Integer year, Integer month) {
+        return new Query(Criteria.where("siteId").is(siteId).and("year").is(year).and("month").is(month));
+    }
+
+    private record RollupDelta(String siteId, Integer year, Integer month,
+                               BigDecimal totalDues, BigDecimal totalPaid, BigDecimal totalPending,
+                               BigDecimal totalOverdue, BigDecimal totalLateFees,
+                               long totalPayments, long paidPayments, long pendingPayments, long overduePayments) {
+
+        static RollupDelta of(Payment payment) {
+            if (payment == null || payment.getDueYear() == null || payment.getDueMonthNumber() == null) {
+                return null;
+            }
+
+            BigDecimal amount = payment.getAmount() != null ? payment.getAmount() : BigDecimal.ZERO;
+            BigDecimal lateFee = payment.getLateFee() != null ? payment.getLateFee() : BigDecimal.ZERO;
+            BigDecimal totalAmount = payment.getTotalAmount() != null ? payment.getTotalAmount() : amount;
+            Payment.PaymentStatus status = payment.getStatus();
+
+            return new RollupDelta(payment.getSiteId(), payment.getDueYear(), payment.getDueMonthNumber(),
+                    amount,
+                    status == Payment.PaymentStatus.PAID ? amount : BigDecimal.ZERO,
+                    status == Payment.PaymentStatus.PENDING ? amount : BigDecimal.ZERO,
+                    status == Payment.PaymentStatus.OVERDUE ? totalAmount : BigDecimal.ZERO,
+                    lateFee,
+                    1,
+                    status == Payment.PaymentStatus.PAID ? 1 : 0,
+                    status == Payment.PaymentStatus.PENDING ? 1 : 0,
+                    status == Payment.PaymentStatus.OVERDUE ? 1 : 0);
+        }
+
+        boolean sameKey(RollupDelta other) {
+            return Objects.equals(siteId, other.siteId) && year.equals(other.year) && month.equals(other.month);
+        }
+
+        RollupDelta minus(RollupDelta other) {
+            return new RollupDelta(siteId, year, month,
+                    totalDues.subtract(other.totalDues),
+                    totalPaid.subtract(other.totalPaid),
+                    totalPending.subtract(other.totalPending),
+                    totalOverdue.subtract(other.totalOverdue),
+                    totalLateFees.subtract(other.totalLateFees),
+                    totalPayments - other.totalPayments,
+                    paidPayments - other.paidPayments,
+                    pendingPayments - other.pendingPayments,
+                    overduePayments - other.overduePayments);
+        }
+
+        RollupDelta negate() {
+            return new RollupDelta(siteId, year, month,
+                    totalDues.negate(), totalPaid.negate(), totalPending.negate(),
+                    totalOverdue.negate(), totalLateFees.negate(),
+                    -totalPayments, -paidPayments, -pendingPayments, -overduePayments);
+        }
+
+        boolean isEmpty() {
+            return totalDues.signum() == 0 && totalPaid.signum() == 0 && totalPending.signum() == 0
+                    && totalOverdue.signum() == 0 && totalLateFees.signum() == 0
+                    && totalPayments == 0 && paidPayments == 0 && pendingPayments == 0 && overduePayments == 0;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.smartshopai.service.impl;
 
 import com.smartshopai.domain.dto.PaymentDto;
+import com.smartshopai.domain.dto.PaymentPeriodTotals;
+import com.smartshopai.domain.dto.PaymentSearchCriteria;
+import com.smartshopai.domain.dto.PaymentSearchPage;
 import com.smartshopai.domain.dto.PaymentStatistics;
 import com.smartshopai.domain.dto.MonthlyPaymentSummary;
 import com.smartshopai.domain.dto.YearlyPaymentSummary;
@@ -8,21 +11,43 @@ import com.smartshopai.domain.entity.Payment;
 import com.smartshopai.domain.mapper.PaymentMapper;
 import com.smartshopai.exception.ResourceNotFoundException;
 import com.smartshopai.repository.PaymentRepository;
+import com.smartshopai.security.SitePermissionResolver;
+import com.smartshopai.service.PaymentRollupService;
+import com.smartshopai.service.PaymentReminderService;
 import com.smartshopai.service.PaymentService;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,8 +55,16 @@ import java.util.Optional;
 @Transactional
 public class PaymentServiceImpl implements PaymentService {
 
+    private static final int DEFAULT_SEARCH_SIZE = 20;
+    private static final int MAX_SEARCH_SIZE = 100;
+
     private final PaymentRepository paymentRepository;
     private final PaymentMapper paymentMapper;
+    private final PaymentRollupService paymentRollupService;
+    private final LateFeeCalculator lateFeeCalculator;
+    private final MongoTemplate mongoTemplate;
+    private final SitePermissionResolver sitePermissionResolver;
+    private final PaymentReminderService paymentReminderService;
 
     @Override
     public PaymentDto createPayment(PaymentDto paymentDto) {
@@ -53,6 +86,7 @@ public class PaymentServiceImpl implements PaymentService {
         }
 
         Payment savedPayment = paymentRepository.save(payment);
+        paymentRollupService.recordChange(null, savedPayment);
         log.info("Payment created successfully with ID: {}", savedPayment.getId());
 
         return paymentMapper.toDto(savedPayment);
@@ -65,10 +99,12 @@ public class PaymentServiceImpl implements PaymentService {
         Payment existingPayment = paymentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found with ID: " + id));
 
+        Payment previousState = existingPayment.toBuilder().build();
         paymentMapper.updateEntityFromDto(paymentDto, existingPayment);
         existingPayment.setUpdatedAt(LocalDateTime.now());
 
         Payment updatedPayment = paymentRepository.save(existingPayment);
+        paymentRollupService.recordChange(previousState, updatedPayment);
         log.info("Payment updated successfully with ID: {}", updatedPayment.getId());
 
         return paymentMapper.toDto(updatedPayment);
@@ -120,7 +156,8 @@ public class PaymentServiceImpl implements PaymentService {
     @Transactional(readOnly = true)
     public List<PaymentDto> getOverduePayments() {
         log.debug("Getting overdue payments");
-        return paymentMapper.toDtoList(paymentRepository.findOverduePayments(LocalDate.now()));
+        // Status is kept current by the overdue transition (nightly and at startup); status_due serves the lookup
+        return paymentMapper.toDtoList(paymentRepository.findByStatus(Payment.PaymentStatus.OVERDUE));
     }
 
     @Override
@@ -130,6 +167,7 @@ public class PaymentServiceImpl implements PaymentService {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found with ID: " + id));
 
+        Payment previousState = payment.toBuilder().build();
         payment.setStatus(status);
         payment.setUpdatedAt(LocalDateTime.now());
 
@@ -138,6 +176,7 @@ public class PaymentServiceImpl implements PaymentService {
         }
 
         Payment updatedPayment = paymentRepository.save(payment);
+        paymentRollupService.recordChange(previousState, updatedPayment);
         log.info("Payment status updated successfully for payment ID: {}", id);
 
         return paymentMapper.toDto(updatedPayment);
@@ -150,6 +189,7 @@ public class PaymentServiceImpl implements PaymentService {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found with ID: " + id));
 
+        Payment previousState = payment.toBuilder().build();
         payment.setReceiptUrl(receiptUrl);
         payment.setPaymentMethod(paymentMethod);
         payment.setPaymentDate(LocalDateTime.now());
@@ -157,6 +197,7 @@ public class PaymentServiceImpl implements PaymentService {
         payment.setUpdatedAt(LocalDateTime.now());
 
         Payment updatedPayment = paymentRepository.save(payment);
+        paymentRollupService.recordChange(previousState, updatedPayment);
         log.info("Payment receipt recorded successfully for payment ID: {}", id);
 
         return paymentMapper.toDto(updatedPayment);
@@ -173,34 +214,17 @@ public class PaymentServiceImpl implements PaymentService {
             return BigDecimal.ZERO;
         }
 
-        LocalDate currentDate = LocalDate.now();
-        if (currentDate.isAfter(payment.getDueDate())) {
-            long monthsLate = payment.getDueDate().until(currentDate).toTotalMonths();
-            long daysLate = payment.getDueDate().until(currentDate).getDays();
-            
-            if (monthsLate > 0) {
-                BigDecimal monthlyLateFee = payment.getAmount().multiply(BigDecimal.valueOf(0.05)).multiply(BigDecimal.valueOf(monthsLate));
-                
-                long remainingDays = daysLate % 30;
-                BigDecimal dailyLateFee = payment.getAmount().multiply(BigDecimal.valueOf(0.002)).multiply(BigDecimal.valueOf(remainingDays));
-                
-                BigDecimal totalLateFee = monthlyLateFee.add(dailyLateFee);
-                
-                BigDecimal maxLateFee = payment.getAmount().multiply(BigDecimal.valueOf(0.5));
-                if (totalLateFee.compareTo(maxLateFee) > 0) {
-                    totalLateFee = maxLateFee;
-                }
-                
-                payment.setLateFee(totalLateFee);
-                payment.setTotalAmount(payment.getAmount().add(totalLateFee));
-                payment.setUpdatedAt(LocalDateTime.now());
-                paymentRepository.save(payment);
-                
-                log.info("Late fee calculated for payment {}: {} ({} months, {} days late)", 
-                    paymentId, totalLateFee, monthsLate, remainingDays);
-                
-                return totalLateFee;
-            }
+        BigDecimal totalLateFee = lateFeeCalculator.calculate(payment.getAmount(), payment.getDueDate(), LocalDate.now());
+        if (totalLateFee.signum() > 0) {
+            Payment previousState = payment.toBuilder().build();
+            payment.setLateFee(totalLateFee);
+            payment.setTotalAmount(payment.getAmount().add(totalLateFee));
+            payment.setUpdatedAt(LocalDateTime.now());
+            Payment updatedPayment = paymentRepository.save(payment);
+            paymentRollupService.recordChange(previousState, updatedPayment);
+
+            log.info("Late fee calculated for payment {}: {}", paymentId, totalLateFee);
+            return totalLateFee;
         }
 
         return BigDecimal.ZERO;
@@ -210,11 +234,11 @@ public class PaymentServiceImpl implements PaymentService {
     public void deletePayment(String id) {
         log.info("Deleting payment with ID: {}", id);
 
-        if (!paymentRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Payment not found with ID: " + id);
-        }
+        Payment payment = paymentRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found with ID: " + id));
 
         paymentRepository.deleteById(id);
+        paymentRollupService.recordChange(payment, null);
         log.info("Payment deleted successfully with ID: {}", id);
     }
 
@@ -223,38 +247,16 @@ public class PaymentServiceImpl implements PaymentService {
     public PaymentStatistics getPaymentStatistics() {
         log.debug("Getting payment statistics");
 
-        long pendingCount = paymentRepository.countByStatus(Payment.PaymentStatus.PENDING);
-        long paidCount = paymentRepository.countByStatus(Payment.PaymentStatus.PAID);
-        long overdueCount = paymentRepository.countByStatus(Payment.PaymentStatus.OVERDUE);
-
-        List<Payment> pendingPayments = paymentRepository.findByStatus(Payment.PaymentStatus.PENDING);
-        List<Payment> paidPayments = paymentRepository.findByStatus(Payment.PaymentStatus.PAID);
-        List<Payment> overduePayments = paymentRepository.findByStatus(Payment.PaymentStatus.OVERDUE);
-
-        BigDecimal totalPending = pendingPayments.stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalPaid = paidPayments.stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalOverdue = overduePayments.stream()
-                .map(Payment::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalLateFees = paymentRepository.findPaymentsWithLateFees().stream()
-                .map(Payment::getLateFee)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        PaymentPeriodTotals totals = paymentRepository.aggregateTotals();
 
         return PaymentStatistics.builder()
-                .totalPending(totalPending)
-                .totalPaid(totalPaid)
-                .totalOverdue(totalOverdue)
-                .totalLateFees(totalLateFees)
-                .pendingCount(pendingCount)
-                .paidCount(paidCount)
-                .overdueCount(overdueCount)
+                .totalPending(totals.getTotalPending())
+                .totalPaid(totals.getTotalPaid())
+                .totalOverdue(totals.getTotalOverdue())
+                .totalLateFees(totals.getTotalLateFees())
+                .pendingCount(totals.getPendingPayments())
+                .paidCount(totals.getPaidPayments())
+                .overdueCount(totals.getOverduePayments())
                 .build();
     }
 
@@ -262,77 +264,23 @@ public class PaymentServiceImpl implements PaymentService {
     @Transactional(readOnly = true)
     public MonthlyPaymentSummary getMonthlyPaymentSummary(Integer year, Integer month) {
         log.debug("Getting monthly payment summary for {}/{}", month, year);
-        
-        YearMonth yearMonth = YearMonth.of(year, month);
-        List<Payment> monthlyPayments = paymentRepository.findByDueMonth(yearMonth);
-        
-        BigDecimal totalDues = monthlyPayments.stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalPaid = monthlyPayments.stream()
-                .filter(p -> p.getStatus() == Payment.PaymentStatus.PAID)
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalPending = monthlyPayments.stream()
-                .filter(p -> p.getStatus() == Payment.PaymentStatus.PENDING)
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalOverdue = monthlyPayments.stream()
-                .filter(p -> p.getStatus() == Payment.PaymentStatus.OVERDUE)
-                .map(Payment::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalLateFees = monthlyPayments.stream()
-                .map(Payment::getLateFee)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        long totalPayments = monthlyPayments.size();
-        long paidPayments = monthlyPayments.stream()
-                .filter(p -> p.getStatus() == Payment.PaymentStatus.PAID)
-                .count();
-        long pendingPayments = monthlyPayments.stream()
-                .filter(p -> p.getStatus() == Payment.PaymentStatus.PENDING)
-                .count();
-        long overduePayments = monthlyPayments.stream()
-                .filter(p -> p.getStatus() == Payment.PaymentStatus.OVERDUE)
-                .count();
-        
-        BigDecimal collectionRate = totalDues.compareTo(BigDecimal.ZERO) > 0 
-                ? totalPaid.divide(totalDues, 4, BigDecimal.ROUND_HALF_UP).multiply(BigDecimal.valueOf(100))
-                : BigDecimal.ZERO;
-        
-        BigDecimal averagePayment = totalPayments > 0 
-                ? totalDues.divide(BigDecimal.valueOf(totalPayments), 2, BigDecimal.ROUND_HALF_UP)
-                : BigDecimal.ZERO;
-        
-        String monthName = yearMonth.getMonth().getDisplayName(java.time.format.TextStyle.FULL, java.util.Locale.getDefault());
-        
-        return MonthlyPaymentSummary.builder()
-                .year(year)
-                .month(month)
-                .monthName(monthName)
-                .totalDues(totalDues)
-                .totalPaid(totalPaid)
-                .totalPending(totalPending)
-                .totalOverdue(totalOverdue)
-                .totalLateFees(totalLateFees)
-                .totalPayments(totalPayments)
-                .paidPayments(paidPayments)
-                .pendingPayments(pendingPayments)
-                .overduePayments(overduePayments)
-                .collectionRate(collectionRate)
-                .averagePayment(averagePayment)
-                .build();
+
+        PaymentPeriodTotals totals = monthlyTotals(year, month).stream()
+                .findFirst()
+                .orElseGet(() -> PaymentPeriodTotals.builder().year(year).month(month).build());
+
+        return toMonthlySummary(year, month, totals);
     }
 
     @Override
     @Transactional(readOnly = true)
     public YearlyPaymentSummary getYearlyPaymentSummary(Integer year) {
         log.debug("Getting yearly payment summary for {}", year);
-        
+
+        Map<Integer, PaymentPeriodTotals> totalsByMonth = monthlyTotals(year, null).stream()
+                .filter(totals -> totals.getMonth() != null)
+                .collect(Collectors.toMap(PaymentPeriodTotals::getMonth, Function.identity()));
+
         List<MonthlyPaymentSummary> monthlyBreakdown = new ArrayList<>();
         BigDecimal totalDues = BigDecimal.ZERO;
         BigDecimal totalPaid = BigDecimal.ZERO;
@@ -343,30 +291,23 @@ public class PaymentServiceImpl implements PaymentService {
         long paidPayments = 0;
         long pendingPayments = 0;
         long overduePayments = 0;
-        
+
         for (int month = 1; month <= 12; month++) {
-            MonthlyPaymentSummary monthlySummary = getMonthlyPaymentSummary(year, month);
-            monthlyBreakdown.add(monthlySummary);
-            
-            totalDues = totalDues.add(monthlySummary.getTotalDues());
-            totalPaid = totalPaid.add(monthlySummary.getTotalPaid());
-            totalPending = totalPending.add(monthlySummary.getTotalPending());
-            totalOverdue = totalOverdue.add(monthlySummary.getTotalOverdue());
-            totalLateFees = totalLateFees.add(monthlySummary.getTotalLateFees());
-            totalPayments += monthlySummary.getTotalPayments();
-            paidPayments += monthlySummary.getPaidPayments();
-            pendingPayments += monthlySummary.getPendingPayments();
-            overduePayments += monthlySummary.getOverduePayments();
+            PaymentPeriodTotals totals = totalsByMonth.getOrDefault(month,
+                    PaymentPeriodTotals.builder().year(year).month(month).build());
+            monthlyBreakdown.add(toMonthlySummary(year, month, totals));
+
+            totalDues = totalDues.add(totals.getTotalDues());
+            totalPaid = totalPaid.add(totals.getTotalPaid());
+            totalPending = totalPending.add(totals.getTotalPending());
+            totalOverdue = totalOverdue.add(totals.getTotalOverdue());
+            totalLateFees = totalLateFees.add(totals.getTotalLateFees());
+            totalPayments += totals.getTotalPayments();
+            paidPayments += totals.getPaidPayments();
+            pendingPayments += totals.getPendingPayments();
+            overduePayments += totals.getOverduePayments();
         }
-        
-        BigDecimal collectionRate = totalDues.compareTo(BigDecimal.ZERO) > 0 
-                ? totalPaid.divide(totalDues, 4, BigDecimal.ROUND_HALF_UP).multiply(BigDecimal.valueOf(100))
-                : BigDecimal.ZERO;
-        
-        BigDecimal averagePayment = totalPayments > 0 
-                ? totalDues.divide(BigDecimal.valueOf(totalPayments), 2, BigDecimal.ROUND_HALF_UP)
-                : BigDecimal.ZERO;
-        
+
         return YearlyPaymentSummary.builder()
                 .year(year)
                 .totalDues(totalDues)
@@ -378,24 +319,317 @@ public class PaymentServiceImpl implements PaymentService {
                 .paidPayments(paidPayments)
                 .pendingPayments(pendingPayments)
                 .overduePayments(overduePayments)
-                .collectionRate(collectionRate)
-                .averagePayment(averagePayment)
+                .collectionRate(collectionRate(totalPaid, totalDues))
+                .averagePayment(averagePayment(totalDues, totalPayments))
                 .monthlyBreakdown(monthlyBreakdown)
                 .build();
     }
 
     @Override
-    public List<PaymentDto> searchPayments(String userId, String apartmentNumber, String buildingNumber,
-                                         String paymentType, String paymentMethod, String status,
-                                         String minAmount, String maxAmount, String startDate, String endDate) {
-        log.debug("Searching payments with criteria");
-        return new ArrayList<>();
+    public PaymentSearchPage searchPayments(PaymentSearchCriteria criteria) {
+        log.debug("Searching payments with criteria: {}", criteria);
+
+        int size = searchSize(criteria.getSize());
+        List<Payment> payments = mongoTemplate.find(searchQuery(criteria).limit(size + 1), Payment.class);
+
+        // One extra row tells whether another page exists without a count query
+        boolean hasMore = payments.size() > size;
+        List<Payment> page = hasMore ? payments.subList(0, size) : payments;
+
+        return PaymentSearchPage.builder()
+                .payments(paymentMapper.toDtoList(page))
+                .size(page.size())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? encodeCursor(page.get(page.size() - 1)) : null)
+                .build();
     }
 
+    @Override
+    public Document explainPaymentSearch(PaymentSearchCriteria criteria) {
+        Query query = searchQuery(criteria).limit(searchSize(criteria.getSize()) + 1);
+
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Payment.class);
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+
+        return mongoTemplate.execute(Payment.class, collection -> {
+            FindIterable<Document> find = collection.find(filter).sort(sort).limit(query.getLimit());
+            if (query.getHint() != null) {
+                find = find.hint(Document.parse(query.getHint()));
+            }
+            return find.explain(ExplainVerbosity.EXECUTION_STATS);
+        });
+    }
+
+    private Query searchQuery(PaymentSearchCriteria search) {
+        // Users outside SUPER_ADMIN only ever search their own site
+        String siteId = sitePermissionResolver.scopeSiteId(search.getSiteId());
+        Payment.PaymentStatus status = parseEnum(Payment.PaymentStatus.class, "status", search.getStatus());
+        Payment.PaymentType paymentType = parseEnum(Payment.PaymentType.class, "paymentType", search.getPaymentType());
+        Payment.PaymentMethod paymentMethod = parseEnum(Payment.PaymentMethod.class, "paymentMethod", search.getPaymentMethod());
+        BigDecimal minAmount = parseAmount("minAmount", search.getMinAmount());
+        BigDecimal maxAmount = parseAmount("maxAmount", search.getMaxAmount());
+        LocalDate startDate = parseDate("startDate", search.getStartDate());
+        LocalDate endDate = parseDate("endDate", search.getEndDate());
+
+        List<Criteria> filters = new ArrayList<>();
+        addIfPresent(filters, "siteId", siteId);
+        addIfPresent(filters, "userId", search.getUserId());
+        addIfPresent(filters, "buildingNumber", search.getBuildingNumber());
+        addIfPresent(filters, "apartmentNumber", search.getApartmentNumber());
+        addIfPresent(filters, "status", status);
+        addIfPresent(filters, "paymentType", paymentType);
+        addIfPresent(filters, "paymentMethod", paymentMethod);
+
+        if (minAmount != null || maxAmount != null) {
+            Criteria amount = Criteria.where("amount");
+            if (minAmount != null) {
+                amount.gte(minAmount);
+            }
+            if (maxAmount != null) {
+                amount.lte(maxAmount);
+            }
+            filters.add(amount);
+        }
+        if (startDate != null || endDate != null) {
+            Criteria dueDate = Criteria.where("dueDate");
+            if (startDate != null) {
+                dueDate.gte(startDate);
+            }
+            if (endDate != null) {
+                dueDate.lte(endDate);
+            }
+            filters.add(dueDate);
+        }
+        if (search.getCursor() != null) {
+            filters.add(afterCursor(search.getCursor()));
+        }
+
+        Query query = new Query();
+        if (!filters.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(filters));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "dueDate", "id"));
+
+        Document hint = searchHint(siteId, search.getUserId(), search.getBuildingNumber(), status);
+        if (hint != null) {
+            query.withHint(hint);
+        }
+        return query;
+    }
+
+    /**
+     * Picks the compound index whose equality prefix matches the filters and whose tail
+     * serves the (due_date, _id) sort, so keyset pages never need an in-memory sort.
+     * User lookups are left to the planner, the user_id index is already the most selective.
+     */
+    private static Document searchHint(String siteId, String userId, String buildingNumber, Payment.PaymentStatus status) {
+        if (siteId == null || userId != null) {
+            return null;
+        }
+        Document hint = new Document("site_id", 1);
+        if (status != null && buildingNumber != null) {
+            hint.append("building_number", 1).append("status", 1);
+        } else if (status != null) {
+            hint.append("status", 1);
+        }
+        return hint.append("due_date", 1).append("_id", 1);
+    }
+
+    private static Criteria afterCursor(String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+        if (parts.length != 2 || !ObjectId.isValid(parts[1])) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+        LocalDate dueDate = parseDate("cursor", parts[0]);
+        ObjectId id = new ObjectId(parts[1]);
+
+        return new Criteria().orOperator(
+                Criteria.where("dueDate").lt(dueDate),
+                Criteria.where("dueDate").is(dueDate).and("id").lt(id));
+    }
+
+    private static String encodeCursor(Payment last) {
+        String cursor = last.getDueDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int searchSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SEARCH_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_SEARCH_SIZE));
+    }
+
+    private static void addIfPresent(List<Criteria> filters, String field, Object value) {
+        if (value != null && !(value instanceof String text && text.isBlank())) {
+            filters.add(Criteria.where(field).is(value));
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static BigDecimal parseAmount(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + ", expected yyyy-MM-dd: " + value);
+        }
+    }
+
+    /**
+     * The original payment becomes installment 1 and keeps its due date; installments 2..n are inserted
+     * in one bulk write pointing back at it. Totals and rollups stay exact because no amount is counted twice.
+     */
     @Override
     public PaymentDto createPaymentInstallment(String paymentId, Integer totalInstallments, String paymentPlan) {
         log.info("Creating payment installment plan for payment ID: {}", paymentId);
-        return null;
+
+        if (totalInstallments == null || totalInstallments < InstallmentSchedule.MIN_INSTALLMENTS
+                || totalInstallments > InstallmentSchedule.MAX_INSTALLMENTS) {
+            throw new IllegalArgumentException("Total installments must be between "
+                    + InstallmentSchedule.MIN_INSTALLMENTS + " and " + InstallmentSchedule.MAX_INSTALLMENTS);
+        }
+        Payment.PaymentPlan plan = parseEnum(Payment.PaymentPlan.class, "paymentPlan", paymentPlan);
+        if (plan == null) {
+            throw new IllegalArgumentException("Payment plan is required");
+        }
+        if (plan == Payment.PaymentPlan.CUSTOM) {
+            throw new IllegalArgumentException("CUSTOM plans cannot be generated automatically");
+        }
+
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found with ID: " + paymentId));
+
+        if (payment.getDueDate() == null) {
+            throw new IllegalArgumentException("Payment " + paymentId + " has no due date to schedule installments from");
+        }
+
+        List<BigDecimal> shares = InstallmentSchedule.split(payment.getAmount(), totalInstallments);
+        if (shares.get(shares.size() - 1).compareTo(new BigDecimal("0.01")) < 0) {
+            throw new IllegalArgumentException("Amount is too small for " + totalInstallments + " installments");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BigDecimal lateFee = payment.getLateFee() != null ? payment.getLateFee() : BigDecimal.ZERO;
+
+        List<Payment> installments = new ArrayList<>(totalInstallments - 1);
+        for (int i = 1; i < totalInstallments; i++) {
+            LocalDate dueDate = InstallmentSchedule.dueDate(payment.getDueDate(), plan, i);
+            YearMonth dueMonth = YearMonth.from(dueDate);
+            installments.add(payment.toBuilder()
+                    .id(null)
+                    .parentPaymentId(paymentId)
+                    .installmentNumber(i + 1)
+                    .totalInstallments(totalInstallments)
+                    .paymentPlan(plan)
+                    .amount(shares.get(i))
+                    .totalAmount(shares.get(i))
+                    .lateFee(null)
+                    .discountAmount(null)
+                    .discountReason(null)
+                    .status(Payment.PaymentStatus.PENDING)
+                    .dueDate(dueDate)
+                    .dueMonth(dueMonth)
+                    .dueYear(dueMonth.getYear())
+                    .dueMonthNumber(dueMonth.getMonthValue())
+                    .duesGenerated(null)
+                    .paymentRemindersSent(0)
+                    .lastReminderSent(null)
+                    .paymentDate(null)
+                    .receiptUrl(null)
+                    .transactionReference(null)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+
+        // Claiming the payment with a conditional update keeps two concurrent requests from both splitting it
+        Query unsplit = new Query(Criteria.where("id").is(paymentId)
+                .and("totalInstallments").is(null)
+                .and("parentPaymentId").is(null)
+                .and("status").in(Payment.PaymentStatus.PENDING, Payment.PaymentStatus.OVERDUE));
+        Update claim = new Update()
+                .set("amount", shares.get(0))
+                .set("totalAmount", shares.get(0).add(lateFee))
+                .set("installmentNumber", 1)
+                .set("totalInstallments", totalInstallments)
+                .set("paymentPlan", plan)
+                .set("updatedAt", now);
+        if (mongoTemplate.updateFirst(unsplit, claim, Payment.class).getModifiedCount() == 0) {
+            throw new IllegalArgumentException("Payment " + paymentId + " is already paid, cancelled or split into installments");
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)
+                    .insert(installments)
+                    .execute();
+        } catch (RuntimeException e) {
+            // Undo the claim so the payment can be split again; a partially inserted batch is removed with it
+            mongoTemplate.remove(new Query(Criteria.where("parentPaymentId").is(paymentId)), Payment.class);
+            mongoTemplate.updateFirst(new Query(Criteria.where("id").is(paymentId)), new Update()
+                    .set("amount", payment.getAmount())
+                    .set("totalAmount", payment.getTotalAmount())
+                    .set("installmentNumber", payment.getInstallmentNumber())
+                    .set("totalInstallments", null)
+                    .set("paymentPlan", payment.getPaymentPlan())
+                    .set("updatedAt", LocalDateTime.now()), Payment.class);
+            throw e;
+        }
+
+        // Installments land in later months, so the whole site is re-rolled
+        paymentRollupService.rebuildRollups(payment.getSiteId());
+        log.info("Payment {} split into {} {} installments", paymentId, totalInstallments, plan);
+
+        return paymentMapper.toDto(paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found with ID: " + paymentId)));
+    }
+
+    @Override
+    public List<PaymentDto> getPaymentInstallments(String paymentId) {
+        log.debug("Getting installments for payment ID: {}", paymentId);
+
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found with ID: " + paymentId));
+        String parentId = payment.getParentPaymentId() != null ? payment.getParentPaymentId() : payment.getId();
+
+        List<Payment> installments = new ArrayList<>();
+        if (parentId.equals(payment.getId())) {
+            installments.add(payment);
+        } else {
+            paymentRepository.findById(parentId).ifPresent(installments::add);
+        }
+        installments.addAll(paymentRepository.findByParentPaymentIdOrderByInstallmentNumber(parentId));
+        return paymentMapper.toDtoList(installments);
     }
 
     @Override
@@ -407,5 +641,46 @@ public class PaymentServiceImpl implements PaymentService {
     @Override
     public void sendPaymentReminder(String paymentId) {
         log.info("Sending payment reminder for payment ID: {}", paymentId);
+        paymentReminderService.sendReminder(paymentId);
+    }
+
+    // Served from the payment_rollups collection; months that were never rolled up fall back to the aggregation
+    private List<PaymentPeriodTotals> monthlyTotals(Integer year, Integer month) {
+        List<PaymentPeriodTotals> rolledUp = paymentRollupService.getMonthlyTotals(year, month);
+        return !rolledUp.isEmpty() ? rolledUp : paymentRepository.aggregateMonthlyTotals(year, month);
+    }
+
+    private MonthlyPaymentSummary toMonthlySummary(Integer year, Integer month, PaymentPeriodTotals totals) {
+        String monthName = YearMonth.of(year, month).getMonth()
+                .getDisplayName(java.time.format.TextStyle.FULL, java.util.Locale.getDefault());
+
+        return MonthlyPaymentSummary.builder()
+                .year(year)
+                .month(month)
+                .monthName(monthName)
+                .totalDues(totals.getTotalDues())
+                .totalPaid(totals.getTotalPaid())
+                .totalPending(totals.getTotalPending())
+                .totalOverdue(totals.getTotalOverdue())
+                .totalLateFees(totals.getTotalLateFees())
+                .totalPayments(totals.getTotalPayments())
+                .paidPayments(totals.getPaidPayments())
+                .pendingPayments(totals.getPendingPayments())
+                .overduePayments(totals.getOverduePayments())
+                .collectionRate(collectionRate(totals.getTotalPaid(), totals.getTotalDues()))
+                .averagePayment(averagePayment(totals.getTotalDues(), totals.getTotalPayments()))
+                .build();
+    }
+
+    private BigDecimal collectionRate(BigDecimal totalPaid, BigDecimal totalDues) {
+        return totalDues.compareTo(BigDecimal.ZERO) > 0
+                ? totalPaid.divide(totalDues, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))
+                : BigDecimal.ZERO;
+    }
+
+    private BigDecimal averagePayment(BigDecimal totalDues, long totalPayments) {
+        return totalPayments > 0
+                ? totalDues.divide(BigDecimal.valueOf(totalPayments), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
     }
 }
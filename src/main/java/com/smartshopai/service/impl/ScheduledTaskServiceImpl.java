@@ -1,33 +1,57 @@
 package com.smartshopai.service.impl;
 
+import com.smartshopai.domain.dto.FileCleanupReport;
+import com.smartshopai.domain.dto.LateFeeRunReport;
+import com.smartshopai.repository.PaymentRollupRepository;
+import com.smartshopai.service.FileCleanupService;
+import com.smartshopai.service.NotificationOutboxService;
+import com.smartshopai.service.PaymentBatchService;
+import com.smartshopai.service.PaymentExportService;
+import com.smartshopai.service.PaymentReminderService;
+import com.smartshopai.service.PaymentRollupService;
 import com.smartshopai.service.ScheduledTaskService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDate;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ScheduledTaskServiceImpl implements ScheduledTaskService {
 
+    private final PaymentRollupService paymentRollupService;
+    private final NotificationOutboxService notificationOutboxService;
+    private final FileCleanupService fileCleanupService;
+    private final PaymentRollupRepository paymentRollupRepository;
+    private final PaymentBatchService paymentBatchService;
+    private final PaymentReminderService paymentReminderService;
+    private final PaymentExportService paymentExportService;
+
     @Override
-    @Scheduled(cron = "0 0 9 * * *") // Every day at 9 AM
+    @Scheduled(cron = "0 0 * * * *") // Every hour; each site is reminded at its own local reminder hour
     public void sendPaymentReminders() {
         log.info("Starting scheduled payment reminders task");
         try {
-            log.info("Payment reminders task completed successfully");
+            int reminders = paymentReminderService.sendDueReminders(Instant.now());
+            log.info("Payment reminders task completed successfully: {} reminders queued", reminders);
         } catch (Exception e) {
             log.error("Error in payment reminders task", e);
         }
     }
 
     @Override
-    @Scheduled(fixedDelay = 300000) // Every 5 minutes
+    @Scheduled(fixedDelayString = "${app.business.notification.outbox-poll-millis:30000}")
     public void processFailedNotifications() {
         log.debug("Starting failed notifications processing task");
         try {
-            log.debug("Failed notifications processing task completed");
+            int processed = notificationOutboxService.processOutbox();
+            log.debug("Failed notifications processing task completed: {} notifications", processed);
         } catch (Exception e) {
             log.error("Error in failed notifications processing task", e);
         }
@@ -38,18 +62,32 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
     public void cleanupExpiredFiles() {
         log.info("Starting expired files cleanup task");
         try {
-            log.info("Expired files cleanup task completed successfully");
+            FileCleanupReport report = fileCleanupService.cleanupExpiredFiles();
+            log.info("Expired files cleanup task completed successfully: {}", report);
         } catch (Exception e) {
             log.error("Error in expired files cleanup task", e);
         }
     }
 
+    @Override
+    @Scheduled(cron = "0 0 4 * * SUN") // Every Sunday at 4 AM
+    public void sweepOrphanFiles() {
+        log.info("Starting orphan files sweep task");
+        try {
+            FileCleanupReport report = fileCleanupService.sweepOrphanFiles();
+            log.info("Orphan files sweep task completed successfully: {}", report);
+        } catch (Exception e) {
+            log.error("Error in orphan files sweep task", e);
+        }
+    }
+
     @Override
     @Scheduled(cron = "0 0 8 * * *") // Every day at 8 AM
     public void generateDailyPaymentReports() {
         log.info("Starting daily payment reports generation task");
         try {
-            log.info("Daily payment reports generation task completed successfully");
+            int reports = paymentExportService.generateDailyReports(LocalDate.now().minusDays(1));
+            log.info("Daily payment reports generation task completed successfully: {} reports", reports);
         } catch (Exception e) {
             log.error("Error in daily payment reports generation task", e);
         }
@@ -65,4 +103,55 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
             log.error("Error in weekly announcements task", e);
         }
     }
+
+    @Override
+    @Scheduled(cron = "0 30 0 * * *") // Every day at 00:30
+    public void markOverduePayments() {
+        log.info("Starting overdue payment transition task");
+        try {
+            long marked = paymentBatchService.markOverduePayments(LocalDate.now());
+            log.info("Overdue payment transition task completed successfully: {} payments marked overdue", marked);
+        } catch (Exception e) {
+            log.error("Error in overdue payment transition task", e);
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "0 0 1 * * *") // Every day at 1 AM
+    public void applyLateFees() {
+        log.info("Starting late fee task");
+        try {
+            LateFeeRunReport report = paymentBatchService.applyLateFees(LocalDate.now());
+            log.info("Late fee task completed successfully: {} of {} payments updated",
+                    report.getPaymentsUpdated(), report.getPaymentsScanned());
+        } catch (Exception e) {
+            log.error("Error in late fee task", e);
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "0 30 3 * * *") // Every day at 3:30 AM
+    public void rebuildPaymentRollups() {
+        log.info("Starting payment rollups rebuild task");
+        try {
+            int rollups = paymentRollupService.rebuildRollups();
+            log.info("Payment rollups rebuild task completed successfully: {} rollups", rollups);
+        } catch (Exception e) {
+            log.error("Error in payment rollups rebuild task", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializePaymentRollups() {
+        if (paymentRollupRepository.count() == 0) {
+            log.info("Payment rollups collection is empty, building initial rollups");
+            rebuildPaymentRollups();
+        }
+    }
+
+    // A missed 00:30 run (deploy or downtime) would leave overdue payments PENDING for a whole day
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpOverduePayments() {
+        markOverduePayments();
+    }
 }
@@ -6,6 +6,8 @@ import com.smartshopai.domain.mapper.UserMapper;
 import com.smartshopai.exception.ResourceNotFoundException;
 import com.smartshopai.exception.UserAlreadyExistsException;
 import com.smartshopai.repository.UserRepository;
+import com.smartshopai.security.AuthenticatedUserCache;
+import com.smartshopai.security.SitePermissionResolver;
 import com.smartshopai.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +30,8 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final SitePermissionResolver sitePermissionResolver;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
     @Override
     public UserDto createUser(UserDto userDto) {
@@ -55,10 +59,13 @@ public class UserServiceImpl implements UserService {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
 
+        String previousEmail = existingUser.getEmail();
         userMapper.updateEntityFromDto(userDto, existingUser);
         existingUser.setUpdatedAt(LocalDateTime.now());
 
         User updatedUser = userRepository.save(existingUser);
+        sitePermissionResolver.evict(id);
+        authenticatedUserCache.revoke(previousEmail);
         log.info("User updated successfully with ID: {}", updatedUser.getId());
 
         return userMapper.toDto(updatedUser);
@@ -110,11 +117,12 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(String id) {
         log.info("Deleting user with ID: {}", id);
 
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found with ID: " + id);
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
 
         userRepository.deleteById(id);
+        sitePermissionResolver.evict(id);
+        authenticatedUserCache.revoke(user.getEmail());
         log.info("User deleted successfully with ID: {}", id);
     }
 
@@ -133,6 +141,7 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedAt(LocalDateTime.now());
 
         userRepository.save(user);
+        authenticatedUserCache.revoke(user.getEmail());
         log.info("Password changed successfully for user with ID: {}", userId);
     }
 
@@ -174,6 +183,8 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedAt(LocalDateTime.now());
 
         userRepository.save(user);
+        sitePermissionResolver.evict(userId);
+        authenticatedUserCache.revoke(user.getEmail());
         log.info("User status toggled to {} for user with ID: {}", enabled, userId);
     }
 
@@ -0,0 +1,66 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.domain.entity.Payment;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstallmentScheduleTest {
+
+    @Test
+    void testSplitDistributesRemainderToFirstInstallments() {
+        // When
+        List<BigDecimal> shares = InstallmentSchedule.split(new BigDecimal("100"), 3);
+
+        // Then
+        assertEquals(List.of(new BigDecimal("33.34"), new BigDecimal("33.33"), new BigDecimal("33.33")), shares);
+        assertEquals(0, shares.stream().reduce(BigDecimal.ZERO, BigDecimal::add).compareTo(new BigDecimal("100")));
+    }
+
+    @Test
+    void testSplitAlwaysSumsToTotal() {
+        // Given
+        BigDecimal total = new BigDecimal("1234.57");
+
+        for (int parts = InstallmentSchedule.MIN_INSTALLMENTS; parts <= InstallmentSchedule.MAX_INSTALLMENTS; parts++) {
+            // When
+            List<BigDecimal> shares = InstallmentSchedule.split(total, parts);
+
+            // Then
+            assertEquals(parts, shares.size());
+            assertEquals(total, shares.stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+            BigDecimal spread = shares.get(0).subtract(shares.get(parts - 1));
+            assertTrue(spread.compareTo(new BigDecimal("0.01")) <= 0);
+        }
+    }
+
+    @Test
+    void testSplitKeepsFinerScale() {
+        // When
+        List<BigDecimal> shares = InstallmentSchedule.split(new BigDecimal("10.005"), 2);
+
+        // Then
+        assertEquals(List.of(new BigDecimal("5.003"), new BigDecimal("5.002")), shares);
+    }
+
+    @Test
+    void testDueDatesDoNotDriftAtMonthEnd() {
+        // Given
+        LocalDate first = LocalDate.of(2024, 1, 31);
+
+        // Then
+        assertEquals(LocalDate.of(2024, 2, 29), InstallmentSchedule.dueDate(first, Payment.PaymentPlan.MONTHLY, 1));
+        assertEquals(LocalDate.of(2024, 3, 31), InstallmentSchedule.dueDate(first, Payment.PaymentPlan.MONTHLY, 2));
+        assertEquals(LocalDate.of(2024, 7, 31), InstallmentSchedule.dueDate(first, Payment.PaymentPlan.QUARTERLY, 2));
+    }
+
+    @Test
+    void testCustomPlanIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> InstallmentSchedule.dueDate(LocalDate.of(2024, 1, 1), Payment.PaymentPlan.CUSTOM, 1));
+    }
+}
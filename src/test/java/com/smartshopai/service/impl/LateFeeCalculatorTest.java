@@ -0,0 +1,66 @@
+package com.smartshopai.service.impl;
+
+import com.smartshopai.config.BusinessConfig;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LateFeeCalculatorTest {
+
+    private final LateFeeCalculator calculator = new LateFeeCalculator(new BusinessConfig());
+
+    @Test
+    void testNoFeeWithinFirstMonth() {
+        // Given
+        LocalDate dueDate = LocalDate.of(2024, 1, 15);
+
+        // When
+        BigDecimal fee = calculator.calculate(new BigDecimal("1000"), dueDate, LocalDate.of(2024, 2, 10));
+
+        // Then
+        assertEquals(0, fee.signum());
+    }
+
+    @Test
+    void testMonthlyAndDailyFee() {
+        // Given
+        LocalDate dueDate = LocalDate.of(2024, 1, 15);
+
+        // When
+        BigDecimal fee = calculator.calculate(new BigDecimal("1000"), dueDate, LocalDate.of(2024, 3, 25));
+
+        // Then: 2 months * 5% + 10 days * 0.2%
+        assertEquals(new BigDecimal("120.00"), fee);
+    }
+
+    @Test
+    void testFeeIsCappedAtMaxPercentage() {
+        // Given
+        LocalDate dueDate = LocalDate.of(2022, 1, 1);
+
+        // When
+        BigDecimal fee = calculator.calculate(new BigDecimal("1000"), dueDate, LocalDate.of(2024, 1, 1));
+
+        // Then
+        assertEquals(new BigDecimal("500.00"), fee);
+    }
+
+    @Test
+    void testConfiguredRatesAreUsed() {
+        // Given
+        BusinessConfig config = new BusinessConfig();
+        config.getPayment().setLateFeeRate(new BigDecimal("0.10"));
+        config.getPayment().setDailyLateFeeRate(BigDecimal.ZERO);
+        LateFeeCalculator customCalculator = new LateFeeCalculator(config);
+
+        // When
+        BigDecimal fee = customCalculator.calculate(new BigDecimal("250.50"),
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1));
+
+        // Then
+        assertEquals(new BigDecimal("25.05"), fee);
+    }
+}